@@ -0,0 +1,299 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Dynamic connectivity that chooses its own representation and changes it while running,
+ * depending on the commands it receives.
+ * </p>
+ *
+ * <p>
+ * It uses two representations:
+ * </p>
+ * <ul>
+ * 		<li>{@link QuickFind}: find costs one array access but union costs N. It is the best option
+ * 		for small sets with very few unions, and for any set once it stops changing (frozen)</li>
+ * 		<li>{@link WeightedQuickUnionPathCompression}: both commands cost almost a constant number
+ * 		of array accesses, a bit more than quick-find's find</li>
+ * </ul>
+ * <p>
+ * It starts with the cheapest one for the declared size and ratio of reads (isConnected and find
+ * commands) and then counts the commands it really receives, using this cost model
+ * (number of array accesses, where d is the average depth of the objects, sampled while running):
+ * </p>
+ * <table>
+ * 		<tr><th>representation</th><th>read</th><th>union</th><th>migrate to the other one</th></tr>
+ * 		<tr><td>quick-find</td><td>2</td><td>N</td><td>N</td></tr>
+ * 		<tr><td>weighted q-u with path compression</td><td>2(1+d)</td><td>2(1+d)+2</td><td>N</td></tr>
+ * </table>
+ * <p>
+ * The representation is migrated in place only when the other one would have saved more than the
+ * cost of migrating:
+ * </p>
+ * <ul>
+ * 		<li>Using quick-find, this is checked after every union, but it only migrates once the unions
+ * 		would have saved {@value #UNFREEZE_FACTOR} times the cost of migrating. So a few unions right
+ * 		after freezing do not unfreeze the structure, only a sustained write phase does, and that phase
+ * 		pays at most the cost of {@value #UNFREEZE_FACTOR} migrations before switching</li>
+ * 		<li>Using weighted quick-union, this is checked every max(N, 1024) commands, so the cost
+ * 		of freezing the structure is always amortized over at least N commands</li>
+ * </ul>
+ * <p>
+ * Commands are only taken into account during max(N, 1024) commands, so the decisions depend
+ * on the recent workload and not on the whole history.
+ * </p>
+ *
+ * @see ConnectivityFactory
+ * @author jfcorugedo
+ *
+ */
+public class AdaptiveConnectivity implements DynamicConnectivity, ParentForest {
+
+	public enum Representation {
+		QUICK_FIND,
+		WEIGHTED_PATH_COMPRESSION
+	}
+
+	private static final int MIN_WINDOW = 1024;
+
+	/** The depth of one of every SAMPLE_RATE reads is measured (must be a power of two) */
+	private static final int SAMPLE_RATE = 64;
+
+	/**
+	 * Quick-find migrates only when it has lost this many migrations, so the structure does not
+	 * go back and forth when a frozen set receives a few unions
+	 */
+	static final int UNFREEZE_FACTOR = 8;
+
+	/** Depth assumed before measuring anything */
+	private static final double DEFAULT_DEPTH = 1;
+
+	private final int size;
+
+	private final long window;
+
+	private Representation representation;
+
+	private QuickFind quickFind;
+
+	private WeightedQuickUnionPathCompression weighted;
+
+	/** Commands received since the last decision */
+	private long unions;
+
+	private long reads;
+
+	private long sampledDepth;
+
+	private long samples;
+
+	private double averageDepth = DEFAULT_DEPTH;
+
+	private int migrations;
+
+	/**
+	 * @param size number of objects
+	 * @param expectedReadRatio expected fraction of isConnected and find commands, between 0 and 1
+	 * @throws IllegalArgumentException if the size is negative or the ratio is not between 0 and 1
+	 */
+	public AdaptiveConnectivity(int size, double expectedReadRatio) {
+
+		if(size < 0) {
+			throw new IllegalArgumentException("The size can not be negative: " + size);
+		}
+		this.size = size;
+		this.window = Math.max(MIN_WINDOW, size);
+		if(quickFindIsCheaper(size, expectedReadRatio)) {
+			representation = Representation.QUICK_FIND;
+			quickFind = new QuickFind(size);
+		} else {
+			representation = Representation.WEIGHTED_PATH_COMPRESSION;
+			weighted = new WeightedQuickUnionPathCompression(size);
+		}
+	}
+
+	/**
+	 * Compares the expected cost of a command on each representation
+	 *
+	 * @param size number of objects
+	 * @param readRatio fraction of isConnected and find commands, between 0 and 1
+	 */
+	static boolean quickFindIsCheaper(int size, double readRatio) {
+
+		//Written this way so NaN is rejected too
+		if(!(readRatio >= 0 && readRatio <= 1)) {
+			throw new IllegalArgumentException("Read ratio must be between 0 and 1: " + readRatio);
+		}
+		double quickFindCost = readRatio * 2 + (1 - readRatio) * size;
+		double weightedCost = readRatio * weightedReadCost(DEFAULT_DEPTH) + (1 - readRatio) * weightedUnionCost(DEFAULT_DEPTH);
+		return quickFindCost < weightedCost;
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		unions++;
+		boolean merged;
+		if(representation == Representation.QUICK_FIND) {
+			merged = quickFind.tryUnion(p, q);
+			if(quickFindExtraCost() > (double) size * UNFREEZE_FACTOR) {
+				toWeighted();
+			} else {
+				endOfWindow();
+			}
+		} else {
+			merged = weighted.tryUnion(p, q);
+			endOfWindow();
+		}
+		return merged;
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		reads++;
+		if(representation == Representation.QUICK_FIND) {
+			boolean connected = quickFind.isConnected(p, q);
+			endOfWindow();
+			return connected;
+		}
+
+		sample(p);
+		boolean connected = weighted.isConnected(p, q);
+		endOfWindow();
+		return connected;
+	}
+
+	@Override
+	public int find(int p) {
+
+		reads++;
+		if(representation == Representation.QUICK_FIND) {
+			int id = quickFind.find(p);
+			endOfWindow();
+			return id;
+		}
+
+		sample(p);
+		int root = weighted.find(p);
+		endOfWindow();
+		return root;
+	}
+
+	@Override
+	public int[] parents() {
+		//The trees of the representation used right now
+		return representation == Representation.QUICK_FIND ? quickFind.parents() : weighted.parents();
+	}
+
+	/**
+	 * @return representation used right now
+	 */
+	public Representation getRepresentation() {
+		return representation;
+	}
+
+	/**
+	 * @return number of times the representation has changed
+	 */
+	public int getMigrations() {
+		return migrations;
+	}
+
+	private void sample(int p) {
+
+		if((reads & (SAMPLE_RATE - 1)) == 0) {
+			sampledDepth += weighted.depth(p);
+			samples++;
+		}
+	}
+
+	private void endOfWindow() {
+
+		if(unions + reads < window) {
+			return;
+		}
+
+		if(representation == Representation.QUICK_FIND) {
+			//Quick-find checks after every union whether it must migrate,
+			//the window only forgets old commands
+			resetCounters();
+			return;
+		}
+
+		if(samples > 0) {
+			averageDepth = (double) sampledDepth / samples;
+		}
+		if(-quickFindExtraCost() > size) {
+			toQuickFind();
+		} else {
+			resetCounters();
+		}
+	}
+
+	/**
+	 * @return array accesses that quick-find needs for the commands received since the last
+	 * decision minus the ones weighted quick-union needs for them (negative if quick-find is cheaper)
+	 */
+	private double quickFindExtraCost() {
+
+		double quickFindCost = reads * 2.0 + unions * (double) size;
+		double weightedCost = reads * weightedReadCost(averageDepth) + unions * weightedUnionCost(averageDepth);
+		return quickFindCost - weightedCost;
+	}
+
+	private static double weightedReadCost(double depth) {
+		return 2 * (1 + depth);
+	}
+
+	private static double weightedUnionCost(double depth) {
+		return 2 * (1 + depth) + 2;
+	}
+
+	/**
+	 * Links each object to the id of its component, which is always an object of the same component
+	 */
+	private void toWeighted() {
+
+		int[] ids = quickFind.getIds();
+		weighted = new WeightedQuickUnionPathCompression(size);
+		for(int i = 0 ; i < size ; i++) {
+			if(ids[i] != i) {
+				weighted.union(ids[i], i);
+			}
+		}
+		quickFind = null;
+		representation = Representation.WEIGHTED_PATH_COMPRESSION;
+		migrations++;
+		resetCounters();
+	}
+
+	/**
+	 * Freezes the current components: the id of each object is its root
+	 */
+	private void toQuickFind() {
+
+		int[] ids = new int[size];
+		for(int i = 0 ; i < size ; i++) {
+			ids[i] = weighted.find(i);
+		}
+		quickFind = new QuickFind(ids);
+		weighted = null;
+		representation = Representation.QUICK_FIND;
+		migrations++;
+		resetCounters();
+	}
+
+	private void resetCounters() {
+
+		unions = 0;
+		reads = 0;
+		sampledDepth = 0;
+		samples = 0;
+	}
+}
@@ -0,0 +1,269 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Wraps a tree based structure and, while it is idle, links its objects directly to their roots
+ * in a background thread, so the first queries after a quiet period find flat trees.
+ * </p>
+ *
+ * <p>
+ * {@link QuickUnion} and {@link WeightedQuickUnion} never compress their paths, and the path compression
+ * variants only compress the paths that are queried, paying those writes in the query itself.
+ * This class moves that work out of the commands:
+ * </p>
+ * <ul>
+ * 		<li>Commands are executed directly on the wrapped structure, without any lock. Like the structure itself,
+ * 		this class is not thread safe: commands must come from one thread at a time. Each command only adds a
+ * 		release store of a counter (a plain store on x86), so the background thread can tell that it is not idle</li>
+ * 		<li>The background thread wakes up every idle period. If no command has started since its previous
+ * 		wake up, it compacts the structure with a {@link Compaction}, in steps of at most {@value #CHUNK}
+ * 		objects or links. Before each step it checks the counter again and stops as soon as a command has started,
+ * 		so it yields to the commands instead of making them wait</li>
+ * 		<li>A pass that is interrupted continues later where it stopped. Once a full pass finishes, nothing is
+ * 		compacted again until a new union command is executed</li>
+ * </ul>
+ * <p>
+ * A command can still start in the middle of a step, so both write the same array at the same time. That is
+ * safe because of how they write it:
+ * </p>
+ * <ul>
+ * 		<li>The background thread only writes the parents of objects that are not roots, with a compare-and-set
+ * 		that fails if the slot has changed since it was read (see {@link Compaction})</li>
+ * 		<li>Commands only link roots or, with path compression, link an object to its grandparent. Path compression
+ * 		reads each slot once and computes the grandparent from that single read, never from a slot read twice,
+ * 		which could mix the parent of before a background write with the one of after it</li>
+ * </ul>
+ * <p>
+ * So every write links an object to one of its ancestors, whatever the interleaving, and a command still finds
+ * the right root. Linking an object to an ancestor never changes which objects are connected, nor the size
+ * of any tree, so the weighted structures keep their guarantees.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>command</th><th>find after a full pass</th><th>full pass</th></tr>
+ * 		<tr><td>background compaction</td><td>the one of the wrapped structure, plus one or two counter stores</td><td>2</td><td>N</td></tr>
+ * </table>
+ * </p>
+ * <p>
+ * BackgroundCompactorBenchmark, in the test sources, measures the cost of going through this class.
+ * </p>
+ *
+ * @see Compaction
+ * @author jfcorugedo
+ *
+ */
+public class BackgroundCompactor implements DynamicConnectivity, AutoCloseable {
+
+	/** Max number of objects visited or links followed by each step of the background thread */
+	static final int CHUNK = 4096;
+
+	private final DynamicConnectivity structure;
+
+	private final Compactable compactable;
+
+	private final long idleMillis;
+
+	private final Thread thread;
+
+	private volatile boolean running = true;
+
+	/** Commands started. Only written by the thread executing commands, with a release store */
+	private final AtomicLong commands = new AtomicLong();
+
+	/** Union commands finished. Only written by the thread executing commands, with a release store */
+	private final AtomicLong unions = new AtomicLong();
+
+	/** Number of union commands finished when the last full pass started, -1 if none has finished */
+	private volatile long compactedUnions = -1;
+
+	private final AtomicLong compactedLinks = new AtomicLong();
+
+	private final AtomicLong passes = new AtomicLong();
+
+	/** Pass of the background thread. Only used by that thread, as the fields below */
+	private final Compaction background = new Compaction(CHUNK);
+
+	private boolean passInProgress;
+
+	private long unionsAtPassStart;
+
+	/**
+	 * Starts compacting the given structure in a background daemon thread
+	 *
+	 * @param structure one of the tree based structures of this package. It must not be used directly anymore
+	 * @param idleMillis time without commands after which the structure is considered idle
+	 * @throws IllegalArgumentException if the structure can not be compacted
+	 */
+	public BackgroundCompactor(DynamicConnectivity structure, long idleMillis) {
+
+		if(!(structure instanceof Compactable)) {
+			throw new IllegalArgumentException(structure.getClass().getSimpleName() + " can not be compacted");
+		}
+		if(idleMillis <= 0) {
+			throw new IllegalArgumentException("The idle period must be positive: " + idleMillis);
+		}
+
+		this.structure = structure;
+		this.compactable = (Compactable) structure;
+		this.idleMillis = idleMillis;
+		this.thread = new Thread(this::run, "connectivity-compactor");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		started(1);
+		structure.union(p, q);
+		unionFinished();
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		started(1);
+		boolean merged = structure.tryUnion(p, q);
+		unionFinished();
+		return merged;
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		started(1);
+		return structure.isConnected(p, q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		started(1);
+		return structure.find(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		started(ps.length);
+		structure.isConnectedAll(ps, qs, out);
+	}
+
+	/**
+	 * Compacts the whole structure now. It must be called from the thread that executes the commands
+	 *
+	 * @return number of links changed
+	 */
+	public int compactNow() {
+
+		started(1);
+		long unionsAtStart = unions.getPlain();
+		Compaction compaction = new Compaction(CHUNK);
+		int changed = 0;
+		do {
+			changed += compactable.compact(compaction);
+		} while(!compaction.isFinished());
+
+		compactedLinks.addAndGet(changed);
+		passes.incrementAndGet();
+		compactedUnions = unionsAtStart;
+		return changed;
+	}
+
+	/**
+	 * @return number of links changed by the compactions so far
+	 */
+	public long getCompactedLinks() {
+		return compactedLinks.get();
+	}
+
+	/**
+	 * @return number of full passes finished so far
+	 */
+	public long getPasses() {
+		return passes.get();
+	}
+
+	/**
+	 * Stops the background thread, waiting for it to finish its current step. If the calling thread
+	 * is interrupted while waiting, it stops waiting and keeps its interrupt status
+	 */
+	@Override
+	public void close() {
+
+		running = false;
+		thread.interrupt();
+		try {
+			thread.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Commands come from one thread at a time, so a plain read and a release store are enough:
+	 * no lock and no atomic read-modify-write in the commands
+	 */
+	private void started(int count) {
+		commands.lazySet(commands.getPlain() + count);
+	}
+
+	private void unionFinished() {
+		unions.lazySet(unions.getPlain() + 1);
+	}
+
+	private void run() {
+
+		long commandsAtLastWakeUp = -1;
+		while(running) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(idleMillis);
+			} catch(InterruptedException e) {
+				return;
+			}
+
+			long seen = commands.get();
+			if(seen != commandsAtLastWakeUp) {
+				//There has been traffic during the last idle period
+				commandsAtLastWakeUp = seen;
+				continue;
+			}
+
+			//Yields as soon as a command starts: it never waits for the background thread
+			while(running && commands.get() == seen && compactNextStep()) {
+				//Keeps compacting while idle
+			}
+		}
+	}
+
+	/**
+	 * @return true if a step has been compacted and the pass has not finished yet
+	 */
+	private boolean compactNextStep() {
+
+		if(!passInProgress) {
+			long currentUnions = unions.get();
+			if(currentUnions == compactedUnions) {
+				//Nothing has been linked since the last full pass
+				return false;
+			}
+			unionsAtPassStart = currentUnions;
+			background.restart();
+			passInProgress = true;
+		}
+
+		compactedLinks.addAndGet(compactable.compact(background));
+		if(background.isFinished()) {
+			passInProgress = false;
+			passes.incrementAndGet();
+			compactedUnions = unionsAtPassStart;
+			return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,138 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Batch connectivity queries over a forest stored with the implicit encoding of this package
+ * (<code>tree[p] = parent(p) - p</code>, see {@link ImplicitArrays}).
+ * </p>
+ *
+ * <p>
+ * Following the path of one query is a chain of dependent loads: the next parent can not be read until the
+ * current one arrives from memory. Instead, the queries are processed in groups of {@value #GROUP}, advancing
+ * the 2 * {@value #GROUP} paths of a group one link per round, so the loads of a round do not depend on each
+ * other and the processor can have many of them in flight at the same time (group prefetching, without
+ * prefetch instructions). A round where no path moves means that every object of the group is at its root.
+ * </p>
+ * <pre>
+ * round 0: p0 p1 ... p15 q0 ... q15     (objects)
+ * round 1: parents of all of them        (32 independent loads)
+ * round 2: grandparents ...
+ * </pre>
+ * <p>
+ * Paths are not compressed, so the tree is only read and batches of at least {@value #PARALLEL_THRESHOLD}
+ * queries are split across the common {@link ForkJoinPool}. The structure must not be modified while the
+ * batch is being answered.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+final class BatchQueries {
+
+	/** Number of queries whose paths are followed at the same time */
+	static final int GROUP = 16;
+
+	/** Minimum number of queries answered in parallel, and size of the part answered by each task */
+	static final int PARALLEL_THRESHOLD = 8192;
+
+	private BatchQueries() {
+		//Static helpers
+	}
+
+	static void checkBatch(int[] ps, int[] qs, boolean[] out) {
+
+		if(ps.length != qs.length) {
+			throw new IllegalArgumentException("There must be the same number of ps and qs");
+		}
+		if(out.length < ps.length) {
+			throw new IllegalArgumentException("out must have room for " + ps.length + " answers: " + out.length);
+		}
+	}
+
+	/**
+	 * @param tree parent offset of each object
+	 */
+	static void isConnectedAll(int[] tree, int[] ps, int[] qs, boolean[] out) {
+
+		checkBatch(ps, qs, out);
+		if(ps.length < PARALLEL_THRESHOLD) {
+			isConnectedRange(tree, ps, qs, out, 0, ps.length);
+		} else {
+			ForkJoinPool.commonPool().invoke(new RangeTask(tree, ps, qs, out, 0, ps.length));
+		}
+	}
+
+	static void isConnectedRange(int[] tree, int[] ps, int[] qs, boolean[] out, int from, int to) {
+
+		int[] currentP = new int[GROUP];
+		int[] currentQ = new int[GROUP];
+		for(int start = from ; start < to ; start += GROUP) {
+			int length = Math.min(GROUP, to - start);
+			for(int i = 0 ; i < length ; i++) {
+				currentP[i] = ps[start + i];
+				currentQ[i] = qs[start + i];
+			}
+
+			boolean moving = true;
+			while(moving) {
+				moving = false;
+				for(int i = 0 ; i < length ; i++) {
+					int offsetP = tree[currentP[i]];
+					int offsetQ = tree[currentQ[i]];
+					currentP[i] += offsetP;
+					currentQ[i] += offsetQ;
+					moving |= (offsetP | offsetQ) != 0;
+				}
+			}
+
+			for(int i = 0 ; i < length ; i++) {
+				out[start + i] = currentP[i] == currentQ[i];
+			}
+		}
+	}
+
+	/**
+	 * Splits a range of queries in halves until it is smaller than the threshold
+	 */
+	private static class RangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] tree;
+
+		private final int[] ps;
+
+		private final int[] qs;
+
+		private final boolean[] out;
+
+		private final int from;
+
+		private final int to;
+
+		RangeTask(int[] tree, int[] ps, int[] qs, boolean[] out, int from, int to) {
+
+			this.tree = tree;
+			this.ps = ps;
+			this.qs = qs;
+			this.out = out;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if(to - from <= PARALLEL_THRESHOLD) {
+				isConnectedRange(tree, ps, qs, out, from, to);
+			} else {
+				//Split on a multiple of GROUP, so no task answers a partial group in the middle
+				int middle = from + ((to - from) / 2 / GROUP) * GROUP;
+				invokeAll(new RangeTask(tree, ps, qs, out, from, middle), new RangeTask(tree, ps, qs, out, middle, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Many small independent connectivity problems (universes) of at most 64 objects each, stored together
+ * in a single array of bitmasks, so solving millions of them does not create one object per problem.
+ * </p>
+ *
+ * <p>
+ * Each object of each universe has a long whose bit i is set if the object is connected to the object i
+ * of its universe (like the ids of {@link QuickFind}, but storing the whole component instead of its name):
+ * </p>
+ * <ul>
+ * 		<li>isConnected(p, q) is a bit test over the mask of p</li>
+ * 		<li>union(p, q) ORs the masks of p and q and writes the result into every object of the new component,
+ * 		visiting only the set bits</li>
+ * 		<li>find(p) is the lowest object of the component of p (the lowest set bit of its mask)</li>
+ * </ul>
+ * <pre>
+ * union(1, 3)   mask[1] = mask[3] = 0b01010
+ * union(3, 4)   mask[1] = mask[3] = mask[4] = 0b11010
+ * isConnected(4, 1) = bit 1 of mask[4] = true
+ * </pre>
+ * <p>
+ * The bit of each object is added when its mask is read, instead of being stored, so a mask 0 means a
+ * component of one object and the array just allocated (or cleared with {@link #reset()}) already represents
+ * every object disconnected (see {@link ImplicitArrays}).
+ * </p>
+ * <p>
+ * The batch methods receive one command per position of their arrays, for any universe, and run in loops
+ * without calls or allocations: a query is one load, a shift and a mask.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write), n objects per universe (n &lt;= 64)
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th><th>reset</th></tr>
+ * 		<tr><td>bit-parallel</td><td>1</td><td>size of the new component + 2</td><td>1</td><td>n</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see QuickFind
+ * @author jfcorugedo
+ *
+ */
+public class BitParallelConnectivity {
+
+	public static final int MAX_SIZE = Long.SIZE;
+
+	private final int universes;
+
+	private final int size;
+
+	/** Component of each object, universe after universe (without the bit of the object itself) */
+	private final long[] masks;
+
+	/**
+	 * @param universes number of independent problems
+	 * @param size number of objects of each problem, at most {@value #MAX_SIZE}
+	 */
+	public BitParallelConnectivity(int universes, int size) {
+
+		if(size < 0 || size > MAX_SIZE) {
+			throw new IllegalArgumentException("Each universe can have between 0 and " + MAX_SIZE + " objects: " + size);
+		}
+		if(universes < 0 || (long) universes * size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many universes: " + universes);
+		}
+
+		this.universes = universes;
+		this.size = size;
+		this.masks = new long[universes * size];
+	}
+
+	/**
+	 * Connects p and q of the given universe
+	 *
+	 * @return true if they were not connected before
+	 */
+	public boolean union(int universe, int p, int q) {
+
+		checkObjects(universe, p, q);
+		return link(universe * size, p, q);
+	}
+
+	public boolean isConnected(int universe, int p, int q) {
+
+		checkObjects(universe, p, q);
+		return ((mask(universe * size, p) >>> q) & 1) != 0;
+	}
+
+	/**
+	 * @return the lowest object of the component of p
+	 */
+	public int find(int universe, int p) {
+
+		checkObjects(universe, p, p);
+		return Long.numberOfTrailingZeros(mask(universe * size, p));
+	}
+
+	/**
+	 * @return bitmask with a bit set for each object connected to p (p included)
+	 */
+	public long component(int universe, int p) {
+
+		checkObjects(universe, p, p);
+		return mask(universe * size, p);
+	}
+
+	/**
+	 * Applies a batch of union commands: universes[i], ps[i] and qs[i] are the universe and objects of command i
+	 *
+	 * @return number of commands that connected two components
+	 */
+	public int unionAll(int[] universes, int[] ps, int[] qs) {
+
+		checkBatch(universes, ps, qs, universes.length);
+		int merges = 0;
+		for(int i = 0 ; i < universes.length ; i++) {
+			checkObjects(universes[i], ps[i], qs[i]);
+			merges += link(universes[i] * size, ps[i], qs[i]) ? 1 : 0;
+		}
+		return merges;
+	}
+
+	/**
+	 * Answers a batch of isConnected queries: universes[i], ps[i] and qs[i] are the universe and objects of query i
+	 *
+	 * @param out where the answers are written. It must be at least as long as universes
+	 */
+	public void isConnectedAll(int[] universes, int[] ps, int[] qs, boolean[] out) {
+
+		checkBatch(universes, ps, qs, out.length);
+		for(int i = 0 ; i < universes.length ; i++) {
+			checkObjects(universes[i], ps[i], qs[i]);
+		}
+		//Validated apart, so this loop has no branches
+		for(int i = 0 ; i < universes.length ; i++) {
+			int p = ps[i];
+			long mask = masks[universes[i] * size + p] | (1L << p);
+			out[i] = ((mask >>> qs[i]) & 1) != 0;
+		}
+	}
+
+	/**
+	 * Disconnects all the objects of every universe
+	 */
+	public void reset() {
+		Arrays.fill(masks, 0);
+	}
+
+	/**
+	 * Disconnects all the objects of the given universe
+	 */
+	public void reset(int universe) {
+
+		checkObjects(universe, 0, 0);
+		Arrays.fill(masks, universe * size, (universe + 1) * size, 0);
+	}
+
+	public int getUniverses() {
+		return universes;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	private long mask(int base, int p) {
+		return masks[base + p] | (1L << p);
+	}
+
+	private boolean link(int base, int p, int q) {
+
+		long maskP = mask(base, p);
+		if(((maskP >>> q) & 1) != 0) {
+			return false;
+		}
+		long merged = maskP | mask(base, q);
+		for(long pending = merged ; pending != 0 ; pending &= pending - 1) {
+			masks[base + Long.numberOfTrailingZeros(pending)] = merged;
+		}
+		return true;
+	}
+
+	private void checkObjects(int universe, int p, int q) {
+
+		if(universe < 0 || universe >= universes) {
+			throw new IndexOutOfBoundsException("Universe must be between 0 and " + (universes - 1) + ": " + universe);
+		}
+		if(p < 0 || p >= size || q < 0 || q >= size) {
+			throw new IndexOutOfBoundsException("Objects must be between 0 and " + (size - 1) + ": " + p + ", " + q);
+		}
+	}
+
+	private static void checkBatch(int[] universes, int[] ps, int[] qs, int outLength) {
+
+		if(universes.length != ps.length || universes.length != qs.length) {
+			throw new IllegalArgumentException("There must be the same number of universes, ps and qs");
+		}
+		if(outLength < universes.length) {
+			throw new IllegalArgumentException("out must have room for " + universes.length + " answers: " + outLength);
+		}
+	}
+}
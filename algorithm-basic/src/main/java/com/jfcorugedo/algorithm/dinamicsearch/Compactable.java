@@ -0,0 +1,24 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * Tree based structure whose objects can be linked directly to their roots at any moment,
+ * without changing which objects are connected. All of them share the same {@link Compaction}.
+ *
+ * @see BackgroundCompactor
+ * @author jfcorugedo
+ *
+ */
+interface Compactable {
+
+	/**
+	 * @return number of objects
+	 */
+	int size();
+
+	/**
+	 * Continues the given compaction over the parents of this structure, one bounded step
+	 *
+	 * @return number of links changed
+	 */
+	int compact(Compaction compaction);
+}
@@ -0,0 +1,143 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * <p>
+ * A pass that links every object of an implicit parent array (see {@link ImplicitArrays}) directly to its root,
+ * done in steps of bounded work, so it can be interleaved with other work and continued later.
+ * </p>
+ *
+ * <p>
+ * Objects are visited in order. From each one, the parents are followed until reaching a root, or an object
+ * whose parent is a root, and every object of that path is linked to that root. So every object visited becomes
+ * flat, and the paths of the next objects stop as soon as they reach it: each link is followed a constant number
+ * of times in the whole pass, even in a chain where the first path is N objects long.
+ * </p>
+ * <p>
+ * Each step visits or follows at most maxSteps objects or links. If a path is longer, every object already followed
+ * is linked to the farthest object reached, which is an ancestor of all of them, and the next step continues the
+ * same path from there. Linking an object to one of its ancestors never changes which objects are connected nor the size of
+ * any tree, no matter what other commands have been executed between two steps.
+ * </p>
+ * <p>
+ * A step can run at the same time as a command of the structure (see {@link BackgroundCompactor}). Each slot is read
+ * once, and each link is written with a compare-and-set that only succeeds if the slot still holds the parent read
+ * while walking the path: if a command has relinked it in the meantime, the link of the command is kept.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>step</th><th>full pass</th></tr>
+ * 		<tr><td>bounded compaction</td><td>4 maxSteps</td><td>N (plus two links for each interrupted path)</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see BackgroundCompactor
+ * @author jfcorugedo
+ *
+ */
+final class Compaction {
+
+	private static final VarHandle TREE = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private final int maxSteps;
+
+	/** Objects of the current path whose parent is not a root yet */
+	private final int[] path;
+
+	/** Offset of each object of the path when it was read */
+	private final int[] offsets;
+
+	/** Next object to visit */
+	private int cursor;
+
+	private boolean finished;
+
+	/**
+	 * @param maxSteps max number of links followed by each step
+	 */
+	Compaction(int maxSteps) {
+
+		if(maxSteps < 1) {
+			throw new IllegalArgumentException("Each step must follow at least one link: " + maxSteps);
+		}
+		this.maxSteps = maxSteps;
+		this.path = new int[maxSteps + 1];
+		this.offsets = new int[maxSteps + 1];
+	}
+
+	/**
+	 * Continues the pass over the given parents, visiting or following at most maxSteps objects or links
+	 * (one more if a single path uses all of them)
+	 *
+	 * @param tree parents of the objects as offsets (0 for the roots)
+	 * @return number of links changed
+	 */
+	int step(int[] tree) {
+
+		int steps = 0;
+		int changed = 0;
+		while(cursor < tree.length && steps < maxSteps) {
+			//Visiting an object counts as a step too, so long runs of roots are also split
+			steps++;
+			int length = 0;
+			int current = cursor;
+			while(true) {
+				int offset = tree[current];
+				if(offset == 0) {
+					break;
+				}
+				int parent = current + offset;
+				int parentOffset = tree[parent];
+				steps++;
+				if(parentOffset == 0) {
+					//current is already linked to the root
+					current = parent;
+					break;
+				}
+				path[length] = current;
+				offsets[length++] = offset;
+				current = parent;
+				if(steps >= maxSteps) {
+					//The grandparent is the farthest ancestor known, so even with one step the path gets shorter
+					path[length] = parent;
+					offsets[length++] = parentOffset;
+					current = parent + parentOffset;
+					break;
+				}
+			}
+
+			//current is the root, or the farthest ancestor reached if there are no steps left
+			for(int i = 0 ; i < length ; i++) {
+				int element = path[i];
+				if(offsets[i] != current - element && TREE.compareAndSet(tree, element, offsets[i], current - element)) {
+					changed++;
+				}
+			}
+			if(tree[current] == 0) {
+				cursor++;
+			}
+		}
+		finished = cursor == tree.length;
+		return changed;
+	}
+
+	/**
+	 * @return true if the last step reached the end of the array
+	 */
+	boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Starts a new pass from the first object
+	 */
+	void restart() {
+
+		cursor = 0;
+		finished = false;
+	}
+}
@@ -0,0 +1,135 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Records the commands executed by many threads over a {@link DynamicConnectivity}, with the moment each
+ * of them was invoked and the moment it returned, so the history can be checked afterwards with
+ * {@link LinearizabilityChecker}.
+ * </p>
+ *
+ * <p>
+ * Moments are taken from a shared counter instead of a clock: if a command returns before another one is
+ * invoked, its response always gets a lower value than the invocation of the other one, even in different
+ * threads. Union commands are executed with {@link DynamicConnectivity#tryUnion(int, int)}, so their result
+ * can be checked too.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class ConcurrentHistory {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final ConcurrentLinkedQueue<Operation> operations = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Executes and records a union command
+	 *
+	 * @return the result of tryUnion
+	 */
+	public boolean union(DynamicConnectivity connectivity, int p, int q) {
+
+		long invocation = clock.incrementAndGet();
+		boolean result = connectivity.tryUnion(p, q);
+		operations.add(new Operation(Operation.UNION, p, q, result, invocation, clock.incrementAndGet()));
+		return result;
+	}
+
+	/**
+	 * Executes and records an isConnected query
+	 */
+	public boolean isConnected(DynamicConnectivity connectivity, int p, int q) {
+
+		long invocation = clock.incrementAndGet();
+		boolean result = connectivity.isConnected(p, q);
+		operations.add(new Operation(Operation.IS_CONNECTED, p, q, result, invocation, clock.incrementAndGet()));
+		return result;
+	}
+
+	/**
+	 * @return the commands recorded so far, in the order they returned
+	 */
+	public List<Operation> getOperations() {
+		return Collections.unmodifiableList(new ArrayList<>(operations));
+	}
+
+	/**
+	 * A command and its result
+	 */
+	public static final class Operation {
+
+		public static final int UNION = 0;
+
+		public static final int IS_CONNECTED = 1;
+
+		private final int type;
+
+		private final int p;
+
+		private final int q;
+
+		private final boolean result;
+
+		private final long invocation;
+
+		private final long response;
+
+		/**
+		 * @param type {@link #UNION} or {@link #IS_CONNECTED}
+		 * @param result value returned by tryUnion or isConnected
+		 * @param invocation moment the command was invoked
+		 * @param response moment the command returned, greater than invocation
+		 */
+		public Operation(int type, int p, int q, boolean result, long invocation, long response) {
+
+			if(type != UNION && type != IS_CONNECTED) {
+				throw new IllegalArgumentException("Unknown type of operation: " + type);
+			}
+			if(response <= invocation) {
+				throw new IllegalArgumentException("An operation must return after it is invoked: " + invocation + ", " + response);
+			}
+			this.type = type;
+			this.p = p;
+			this.q = q;
+			this.result = result;
+			this.invocation = invocation;
+			this.response = response;
+		}
+
+		public int getType() {
+			return type;
+		}
+
+		public int getP() {
+			return p;
+		}
+
+		public int getQ() {
+			return q;
+		}
+
+		public boolean getResult() {
+			return result;
+		}
+
+		public long getInvocation() {
+			return invocation;
+		}
+
+		public long getResponse() {
+			return response;
+		}
+
+		@Override
+		public String toString() {
+			return (type == UNION ? "union" : "isConnected") + "(" + p + ", " + q + ") = " + result + " [" + invocation + ", " + response + "]";
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>
+ * Lock-free quick-union that can be used by many threads at the same time.
+ * </p>
+ *
+ * <p>
+ * Parents are stored in an {@link AtomicIntegerArray}, as offsets (see {@link ImplicitArrays}), and every
+ * write is a compare-and-set, so a thread never overwrites a link that another thread has just changed:
+ * </p>
+ * <ul>
+ * 		<li>union links one root to the other with a CAS that only succeeds if it is still a root.
+ * 		If it fails, another thread has linked it first, and the union starts again from the new roots</li>
+ * 		<li>find uses path halving: each object visited is linked to its grandparent with a CAS. If it fails,
+ * 		another thread has already moved that link up, which is just as good, so it is not retried</li>
+ * 		<li>isConnected finds both roots and, if they are different, checks that the first one is still a root.
+ * 		If it is, both objects were in different trees at that moment. Otherwise it tries again</li>
+ * </ul>
+ * <p>
+ * Sizes can not be kept consistent with the links without locking, so instead of weighting, roots are
+ * linked by priority: the root with the lower priority is linked to the other one. Priorities are a
+ * pseudo-random permutation of the ids mixed with a seed that each instance chooses at random, so the order
+ * of the priorities can not be known in advance. Unless the union commands depend on that seed, the trees
+ * are as shallow as with a random linking order (expected depth log N). With a fixed permutation, unions
+ * in increasing order of priority would build a single chain.
+ * </p>
+ * <p>
+ * Every failed CAS and every retry calls a hook that does nothing here, so subclasses can measure the contention
+ * (see ScalabilityBenchmark in the test sources). While no subclass overrides them, the JIT inlines them away.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write), without contention
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th></tr>
+ * 		<tr><td>concurrent q-u (randomized linking, path halving)</td><td>1</td><td>log*N expected (over the seed)</td><td>log*N expected (over the seed)</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see LinearizabilityChecker
+ * @author jfcorugedo
+ *
+ */
+public class ConcurrentQuickUnion implements DynamicConnectivity, ParentForest {
+
+	private final AtomicIntegerArray tree;
+
+	/** Mixed with the ids, so the order of the priorities is different in each instance */
+	private final int seed;
+
+	/**
+	 * Initializes this algorithm to handle a set of object of this specific size
+	 * @param size
+	 */
+	public ConcurrentQuickUnion(int size) {
+
+		this(size, ThreadLocalRandom.current().nextInt());
+	}
+
+	/**
+	 * This constructor should be used only for testing, to know the order of the priorities
+	 */
+	ConcurrentQuickUnion(int size, int seed) {
+
+		this.tree = new AtomicIntegerArray(size);
+		this.seed = seed;
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		while(true) {
+			int rootP = findRoot(p);
+			int rootQ = findRoot(q);
+			if(rootP == rootQ) {
+				return false;
+			}
+			int child = priority(rootP ^ seed) < priority(rootQ ^ seed) ? rootP : rootQ;
+			int parent = child == rootP ? rootQ : rootP;
+			if(tree.compareAndSet(child, 0, parent - child)) {
+				return true;
+			}
+			unionRetried();
+		}
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		while(true) {
+			int rootP = findRoot(p);
+			int rootQ = findRoot(q);
+			if(rootP == rootQ) {
+				return true;
+			}
+			//rootQ was a root a moment ago: if rootP still is one, both were different roots at that moment
+			if(tree.get(rootP) == 0) {
+				return false;
+			}
+			isConnectedRetried();
+		}
+	}
+
+	@Override
+	public int find(int p) {
+
+		return findRoot(p);
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	public int size() {
+		return tree.length();
+	}
+
+	/**
+	 * Finds the root of the given object
+	 * @return
+	 */
+	protected int findRoot(int element) {
+
+		int currentElement = element;
+		int offset = tree.get(currentElement);
+		//A root element is connected to itself (its offset is 0)
+		while(offset != 0) {
+			int parent = currentElement + offset;
+			int parentOffset = tree.get(parent);
+			if(parentOffset == 0) {
+				return parent;
+			}
+			//Link the element to its grandparent, unless another thread has changed its link
+			if(!tree.compareAndSet(currentElement, offset, offset + parentOffset)) {
+				compressionFailed();
+			}
+			currentElement = parent + parentOffset;
+			offset = tree.get(currentElement);
+		}
+
+		return currentElement;
+	}
+
+	/**
+	 * Called every time a union starts again because another thread linked one of its roots first
+	 */
+	protected void unionRetried() {
+		//Only for subclasses that measure contention
+	}
+
+	/**
+	 * Called every time isConnected starts again because the roots changed while it was finding them
+	 */
+	protected void isConnectedRetried() {
+		//Only for subclasses that measure contention
+	}
+
+	/**
+	 * Called every time path halving does not link an object to its grandparent because another thread changed its link
+	 */
+	protected void compressionFailed() {
+		//Only for subclasses that measure contention
+	}
+
+	/**
+	 * Multiplying by an odd constant is a bijection of the ints, so there are no ties. Callers mix the ids
+	 * with a random seed first, so the permutation is not the same for every instance
+	 */
+	static int priority(int element) {
+		return element * 0x9E3779B9;
+	}
+
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+
+		int[] parents = new int[tree.length()];
+		for(int i = 0 ; i < parents.length ; i++) {
+			parents[i] = i + tree.get(i);
+		}
+		return parents;
+	}
+}
@@ -0,0 +1,55 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Chooses the implementation of {@link DynamicConnectivity} that fits a workload.
+ * </p>
+ *
+ * <p>
+ * For a set of N objects where a fraction r of the commands are reads (isConnected or find),
+ * {@link QuickFind} is only worth it while <code>(1 - r) * N</code> is lower than a few array accesses,
+ * that is, for small sets that are almost never modified. Otherwise
+ * {@link WeightedQuickUnionPathCompression} is always the best choice: {@link QuickUnion},
+ * {@link QuickUnionPathCompression} and {@link WeightedQuickUnion} are never cheaper than it.
+ * </p>
+ *
+ * <p>
+ * When the workload is not known in advance, or changes over time, {@link #adaptive(int, double)}
+ * returns an implementation that keeps checking this choice while running.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public final class ConnectivityFactory {
+
+	private ConnectivityFactory() {
+		//Static factory
+	}
+
+	/**
+	 * Creates the cheapest fixed implementation for the given workload
+	 *
+	 * @param size number of objects
+	 * @param readRatio expected fraction of isConnected and find commands, between 0 and 1
+	 */
+	public static DynamicConnectivity create(int size, double readRatio) {
+
+		if(AdaptiveConnectivity.quickFindIsCheaper(size, readRatio)) {
+			return new QuickFind(size);
+		}
+		return new WeightedQuickUnionPathCompression(size);
+	}
+
+	/**
+	 * Creates an implementation that starts with the cheapest representation for the given workload
+	 * and migrates to another one when the real workload is different
+	 *
+	 * @param size number of objects
+	 * @param expectedReadRatio expected fraction of isConnected and find commands, between 0 and 1
+	 */
+	public static AdaptiveConnectivity adaptive(int size, double expectedReadRatio) {
+
+		return new AdaptiveConnectivity(size, expectedReadRatio);
+	}
+}
@@ -0,0 +1,153 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Sequence of commands recorded by a {@link RecordingConnectivity}, loaded in memory so it can be
+ * replayed without measuring the cost of reading it.
+ * </p>
+ *
+ * <p>
+ * Commands are stored in three parallel arrays: {@link #getCommands()}, {@link #getPs()}
+ * and {@link #getQs()}.
+ * </p>
+ *
+ * @see TraceWriter
+ * @see TraceReplay
+ * @author jfcorugedo
+ *
+ */
+public class ConnectivityTrace {
+
+	public static final byte UNION = TraceWriter.UNION;
+
+	public static final byte IS_CONNECTED = TraceWriter.IS_CONNECTED;
+
+	public static final byte FIND = TraceWriter.FIND;
+
+	private final int size;
+
+	private final byte[] commands;
+
+	private final int[] ps;
+
+	private final int[] qs;
+
+	private final int length;
+
+	private ConnectivityTrace(int size, byte[] commands, int[] ps, int[] qs, int length) {
+
+		this.size = size;
+		this.commands = commands;
+		this.ps = ps;
+		this.qs = qs;
+		this.length = length;
+	}
+
+	/**
+	 * Reads a whole trace
+	 *
+	 * @param in Stream with a trace written by a {@link TraceWriter}. It is not closed.
+	 * @throws IOException if the stream cannot be read or does not contain a valid trace
+	 */
+	public static ConnectivityTrace read(InputStream in) throws IOException {
+
+		InputStream input = new BufferedInputStream(in, 64 * 1024);
+		int magic = (readByte(input) << 24) | (readByte(input) << 16) | (readByte(input) << 8) | readByte(input);
+		if(magic != TraceWriter.MAGIC) {
+			throw new IOException("This is not a connectivity trace");
+		}
+		long version = readVarLong(input);
+		if(version != TraceWriter.VERSION) {
+			throw new IOException("Unsupported trace version " + version);
+		}
+		int size = (int) readVarLong(input);
+
+		byte[] commands = new byte[1024];
+		int[] ps = new int[1024];
+		int[] qs = new int[1024];
+		int length = 0;
+		int first;
+		while((first = input.read()) >= 0) {
+			if(length == commands.length) {
+				commands = Arrays.copyOf(commands, length * 2);
+				ps = Arrays.copyOf(ps, length * 2);
+				qs = Arrays.copyOf(qs, length * 2);
+			}
+			long header = continueVarLong(input, first);
+			long zigZag = readVarLong(input);
+			long difference = (zigZag >>> 1) ^ -(zigZag & 1);
+			int command = (int) (header & 3);
+			if(command > FIND) {
+				throw new IOException("Unknown command " + command);
+			}
+			commands[length] = (byte) command;
+			ps[length] = (int) (header >>> 2);
+			qs[length] = (int) (ps[length] + difference);
+			length++;
+		}
+
+		return new ConnectivityTrace(size, commands, ps, qs, length);
+	}
+
+	/**
+	 * @return number of objects of the recorded structure
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return number of commands
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return {@link #UNION}, {@link #IS_CONNECTED} or {@link #FIND} for each command.
+	 * Only the first {@link #getLength()} positions are meaningful.
+	 */
+	public byte[] getCommands() {
+		return commands;
+	}
+
+	public int[] getPs() {
+		return ps;
+	}
+
+	public int[] getQs() {
+		return qs;
+	}
+
+	private static int readByte(InputStream input) throws IOException {
+
+		int value = input.read();
+		if(value < 0) {
+			throw new EOFException("Truncated trace");
+		}
+		return value;
+	}
+
+	private static long readVarLong(InputStream input) throws IOException {
+		return continueVarLong(input, readByte(input));
+	}
+
+	private static long continueVarLong(InputStream input, int first) throws IOException {
+
+		long value = first & 0x7F;
+		int current = first;
+		int shift = 7;
+		while((current & 0x80) != 0) {
+			current = readByte(input);
+			value |= (long) (current & 0x7F) << shift;
+			shift += 7;
+		}
+		return value;
+	}
+}
@@ -56,6 +56,25 @@ public interface DynamicConnectivity {
 	 */
 	void union(int p, int q);
 	
+	/**
+	 * Connects two objects, like {@link #union(int, int)}, and tells whether they were in different components.
+	 * 
+	 * Callers that need to know if an edge merges two components should use it instead of calling
+	 * isConnected before union, which would find the roots of both objects twice.
+	 * 
+	 * @param p Object to be connected to q
+	 * @param q Object to be connected to p
+	 * @return true if p and q were not connected before, false if the edge was redundant
+	 */
+	default boolean tryUnion(int p, int q) {
+		
+		if(isConnected(p, q)) {
+			return false;
+		}
+		union(p, q);
+		return true;
+	}
+	
 	/**
 	 * Returns true if and only if there's a path between p and q
 	 * 
@@ -64,4 +83,39 @@ public interface DynamicConnectivity {
 	 * @return
 	 */
 	boolean isConnected(int p, int q);
+
+	/**
+	 * Returns the identifier of the connected component that contains p.
+	 * 
+	 * Two objects are connected if and only if they have the same identifier. The identifier
+	 * of a component may change after a union command.
+	 * 
+	 * Every implementation of this package overrides it. The default implementation only exists so
+	 * implementations written before this method was added still compile.
+	 * 
+	 * @param p
+	 * @return the identifier of the component (the root of its tree in tree based implementations)
+	 * @throws UnsupportedOperationException if the implementation can not name its components
+	 */
+	default int find(int p) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support find");
+	}
+
+	/**
+	 * Answers a batch of isConnected queries: out[i] is set to isConnected(ps[i], qs[i]).
+	 * 
+	 * Tree based implementations override it to follow the paths of many queries at once,
+	 * so the memory accesses of different queries overlap.
+	 * 
+	 * @param ps first object of each query
+	 * @param qs second object of each query
+	 * @param out where the answers are written. It must be at least as long as ps
+	 */
+	default void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+		
+		BatchQueries.checkBatch(ps, qs, out);
+		for(int i = 0 ; i < ps.length ; i++) {
+			out[i] = isConnected(ps[i], qs[i]);
+		}
+	}
 }
@@ -0,0 +1,360 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Connected components of a graph whose vertices do not fit in memory either, by contracting the edges with
+ * external sorts (see {@link LongFiles}). Every file is read and written sequentially, and the memory used
+ * is the sort buffer plus a few blocks, whatever the number of vertices or edges.
+ * </p>
+ *
+ * <p>
+ * Edges are stored as longs, the first vertex in the high half, so sorting them groups the edges of each vertex.
+ * Each pass:
+ * </p>
+ * <ul>
+ * 		<li>Writes every edge in both directions, without loops, and sorts them</li>
+ * 		<li>Hooks every vertex to its smallest neighbour, if that is smaller than itself. Hooks always point to
+ * 		smaller vertices, so they form trees</li>
+ * 		<li>Links every hooked vertex directly to the root of its tree by pointer jumping: each round replaces
+ * 		every hook by the hook of its target, with a sort and a merge join, halving the depth of the trees</li>
+ * 		<li>Replaces both vertices of every edge by their roots, with two more sorts and merge joins, and removes
+ * 		the repeated edges. The hooked vertices do not appear in the contracted graph anymore</li>
+ * </ul>
+ * <p>
+ * Every vertex with a smaller neighbour is removed by each pass, so the largest vertex of every component
+ * with edges disappears and the passes end when there are no edges left. Then the hooks of all the passes are
+ * composed, from the last one to the first one, and the label of each vertex is written: the smallest vertex
+ * of its component, the only one that is never hooked.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: E edges, V vertices, P passes, J pointer jumping rounds per pass
+ * <table>
+ * 		<tr><th>operation</th><th>external sorts</th></tr>
+ * 		<tr><td>each pass</td><td>2 of at most 2E records, and J + 1 of at most V records</td></tr>
+ * 		<tr><td>labels</td><td>2 of at most V records for each pass</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see SemiExternalConnectivity
+ * @author jfcorugedo
+ *
+ */
+final class ExternalContraction {
+
+	private final int vertices;
+
+	private final Path directory;
+
+	private final long[] buffer;
+
+	private final int blockSize;
+
+	private int passes;
+
+	/** Every temporary file created by the current call to writeLabels, deleted when it ends */
+	private final List<Path> temporaryFiles = new ArrayList<>();
+
+	/**
+	 * @param vertices number of vertices of the graph
+	 * @param directory where the temporary files are written
+	 * @param memoryRecords number of records sorted in memory at once
+	 * @param blockSize bytes read from or written to disk at once
+	 */
+	ExternalContraction(int vertices, Path directory, int memoryRecords, int blockSize) {
+
+		if(memoryRecords < 1) {
+			throw new IllegalArgumentException("At least one record must fit in memory: " + memoryRecords);
+		}
+		this.vertices = vertices;
+		this.directory = directory;
+		this.buffer = new long[memoryRecords];
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * @return an edge as a record, so sorting the records groups the edges of each first vertex
+	 */
+	static long pair(int first, int second) {
+		return (long) first << 32 | second & 0xFFFFFFFFL;
+	}
+
+	static int first(long pair) {
+		return (int) (pair >>> 32);
+	}
+
+	static int second(long pair) {
+		return (int) pair;
+	}
+
+	/**
+	 * Writes the label of each vertex, as one big-endian int per vertex: the smallest vertex of its component
+	 *
+	 * @param edgesFile edges as records of {@link #pair(int, int)}, with every vertex in range. It is not modified
+	 * @param labelsFile its contents are replaced
+	 * @return number of components
+	 */
+	long writeLabels(Path edgesFile, Path labelsFile) throws IOException {
+
+		List<Path> hooks = new ArrayList<>();
+		try {
+			long hooked = 0;
+			Path edges = edgesFile;
+			while(true) {
+				Path adjacency = adjacency(edges);
+				if(edges != edgesFile) {
+					Files.delete(edges);
+				}
+				if(Files.size(adjacency) == 0) {
+					Files.delete(adjacency);
+					break;
+				}
+				passes++;
+
+				Path passHooks = hooks(adjacency);
+				hooks.add(passHooks);
+				hooked += jumpToRoots(passHooks);
+				edges = contract(adjacency, passHooks);
+			}
+
+			writeRoots(composeHooks(hooks), labelsFile);
+			return vertices - hooked;
+		} finally {
+			//Most of them are already deleted, unless a pass has failed in the middle
+			for(Path file : temporaryFiles) {
+				Files.deleteIfExists(file);
+			}
+			temporaryFiles.clear();
+		}
+	}
+
+	/**
+	 * @return number of passes of every call to writeLabels so far
+	 */
+	int getPasses() {
+		return passes;
+	}
+
+	/**
+	 * @return every edge in both directions, without loops, sorted and without repetitions
+	 */
+	private Path adjacency(Path edges) throws IOException {
+
+		Path adjacency = temporaryFile();
+		try(LongFiles.Reader reader = new LongFiles.Reader(edges, blockSize);
+				LongFiles.Writer writer = new LongFiles.Writer(adjacency, blockSize)) {
+			while(reader.hasNext()) {
+				long edge = reader.next();
+				int p = first(edge);
+				int q = second(edge);
+				if(p != q) {
+					writer.write(pair(p, q));
+					writer.write(pair(q, p));
+				}
+			}
+		}
+		LongFiles.sort(adjacency, adjacency, buffer, blockSize, true);
+		return adjacency;
+	}
+
+	/**
+	 * @return the hook of every vertex with a smaller neighbour, sorted by vertex
+	 */
+	private Path hooks(Path adjacency) throws IOException {
+
+		Path hooks = temporaryFile();
+		try(LongFiles.Reader reader = new LongFiles.Reader(adjacency, blockSize);
+				LongFiles.Writer writer = new LongFiles.Writer(hooks, blockSize)) {
+			int previous = -1;
+			while(reader.hasNext()) {
+				long edge = reader.next();
+				int vertex = first(edge);
+				if(vertex != previous) {
+					//The first neighbour of each vertex is the smallest one
+					previous = vertex;
+					if(second(edge) < vertex) {
+						writer.write(edge);
+					}
+				}
+			}
+		}
+		return hooks;
+	}
+
+	/**
+	 * Replaces every hook by one to the root of its tree
+	 *
+	 * @return number of hooks
+	 */
+	private long jumpToRoots(Path hooks) throws IOException {
+
+		boolean changed = true;
+		long count = 0;
+		while(changed) {
+			//Hooks by target, so they can be joined with the hooks of the targets
+			Path byTarget = temporaryFile();
+			try(LongFiles.Reader reader = new LongFiles.Reader(hooks, blockSize);
+					LongFiles.Writer writer = new LongFiles.Writer(byTarget, blockSize)) {
+				while(reader.hasNext()) {
+					long hook = reader.next();
+					writer.write(pair(second(hook), first(hook)));
+				}
+			}
+			LongFiles.sort(byTarget, byTarget, buffer, blockSize, false);
+
+			changed = false;
+			Path jumped = temporaryFile();
+			try(LongFiles.Reader reader = new LongFiles.Reader(byTarget, blockSize);
+					LongFiles.Reader targets = new LongFiles.Reader(hooks, blockSize);
+					LongFiles.Writer writer = new LongFiles.Writer(jumped, blockSize)) {
+				while(reader.hasNext()) {
+					long hook = reader.next();
+					int target = first(hook);
+					int jump = find(targets, target);
+					changed |= jump != target;
+					writer.write(pair(second(hook), jump));
+				}
+				count = writer.getCount();
+			}
+			Files.delete(byTarget);
+			LongFiles.sort(jumped, hooks, buffer, blockSize, false);
+			Files.delete(jumped);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the edges between the roots of the vertices of each edge. Deletes the adjacency file
+	 */
+	private Path contract(Path adjacency, Path hooks) throws IOException {
+
+		//Both directions are in the file, so one of them is enough: (p, q) becomes (q, root of p)
+		Path half = temporaryFile();
+		try(LongFiles.Reader reader = new LongFiles.Reader(adjacency, blockSize);
+				LongFiles.Reader roots = new LongFiles.Reader(hooks, blockSize);
+				LongFiles.Writer writer = new LongFiles.Writer(half, blockSize)) {
+			while(reader.hasNext()) {
+				long edge = reader.next();
+				if(first(edge) < second(edge)) {
+					writer.write(pair(second(edge), find(roots, first(edge))));
+				}
+			}
+		}
+		Files.delete(adjacency);
+		LongFiles.sort(half, half, buffer, blockSize, true);
+
+		Path contracted = temporaryFile();
+		try(LongFiles.Reader reader = new LongFiles.Reader(half, blockSize);
+				LongFiles.Reader roots = new LongFiles.Reader(hooks, blockSize);
+				LongFiles.Writer writer = new LongFiles.Writer(contracted, blockSize)) {
+			while(reader.hasNext()) {
+				long edge = reader.next();
+				writer.write(pair(find(roots, first(edge)), second(edge)));
+			}
+		}
+		Files.delete(half);
+		return contracted;
+	}
+
+	/**
+	 * Composes the hooks of every pass, from the last one to the first one, so each hooked vertex
+	 * is linked to the root of its component
+	 *
+	 * @return the hook of every hooked vertex to its final root, sorted by vertex
+	 */
+	private Path composeHooks(List<Path> hooks) throws IOException {
+
+		//No hooks yet: every vertex is its own root
+		Path composed = temporaryFile();
+		for(int pass = hooks.size() - 1 ; pass >= 0 ; pass--) {
+			Path byTarget = temporaryFile();
+			try(LongFiles.Reader reader = new LongFiles.Reader(hooks.get(pass), blockSize);
+					LongFiles.Writer writer = new LongFiles.Writer(byTarget, blockSize)) {
+				while(reader.hasNext()) {
+					long hook = reader.next();
+					writer.write(pair(second(hook), first(hook)));
+				}
+			}
+			LongFiles.sort(byTarget, byTarget, buffer, blockSize, false);
+
+			//The vertices hooked in this pass are not in the later ones, so both sets of hooks can be appended
+			Path next = temporaryFile();
+			try(LongFiles.Reader reader = new LongFiles.Reader(byTarget, blockSize);
+					LongFiles.Reader later = new LongFiles.Reader(composed, blockSize);
+					LongFiles.Writer writer = new LongFiles.Writer(next, blockSize)) {
+				while(reader.hasNext()) {
+					long hook = reader.next();
+					writer.write(pair(second(hook), find(later, first(hook))));
+				}
+				try(LongFiles.Reader all = new LongFiles.Reader(composed, blockSize)) {
+					while(all.hasNext()) {
+						writer.write(all.next());
+					}
+				}
+			}
+			Files.delete(byTarget);
+			LongFiles.sort(next, composed, buffer, blockSize, false);
+			Files.delete(next);
+		}
+		return composed;
+	}
+
+	private void writeRoots(Path composed, Path labelsFile) throws IOException {
+
+		ByteBuffer block = ByteBuffer.allocate(Math.max(Integer.BYTES, blockSize - blockSize % Integer.BYTES));
+		try(LongFiles.Reader roots = new LongFiles.Reader(composed, blockSize);
+				FileChannel channel = FileChannel.open(labelsFile, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for(int vertex = 0 ; vertex < vertices ; vertex++) {
+				if(block.remaining() < Integer.BYTES) {
+					writeBlock(channel, block);
+				}
+				block.putInt(find(roots, vertex));
+			}
+			writeBlock(channel, block);
+		} finally {
+			Files.delete(composed);
+		}
+	}
+
+	/**
+	 * Merge join with hooks sorted by vertex: the vertices must be looked up in ascending order
+	 *
+	 * @return the target of the hook of the vertex, or the vertex itself if it is not hooked
+	 */
+	private static int find(LongFiles.Reader hooks, int vertex) throws IOException {
+
+		while(hooks.hasNext() && first(hooks.peek()) < vertex) {
+			hooks.next();
+		}
+		if(hooks.hasNext() && first(hooks.peek()) == vertex) {
+			return second(hooks.peek());
+		}
+		return vertex;
+	}
+
+	private static void writeBlock(FileChannel channel, ByteBuffer block) throws IOException {
+
+		block.flip();
+		while(block.hasRemaining()) {
+			channel.write(block);
+		}
+		block.clear();
+	}
+
+	private Path temporaryFile() throws IOException {
+
+		Path file = Files.createTempFile(directory, "contraction", ".tmp");
+		temporaryFiles.add(file);
+		return file;
+	}
+}
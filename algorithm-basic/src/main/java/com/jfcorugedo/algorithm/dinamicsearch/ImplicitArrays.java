@@ -0,0 +1,68 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Helpers for the implicit encoding used by the arrays of this package, where a slot that has
+ * never been written (zero, the value of every slot of a new array) means "the initial value".
+ * </p>
+ *
+ * <ul>
+ * 		<li>Parents (and quick-find ids) are stored as offsets: <code>tree[p] = parent(p) - p</code>.
+ * 		Zero means that p is its own parent, so a new array is a forest of N roots</li>
+ * 		<li>Sizes are stored as the number of objects besides the root: <code>treesSize[p] = size(p) - 1</code>.
+ * 		Zero means a tree of one object</li>
+ * </ul>
+ *
+ * <p>
+ * So constructors only allocate the arrays and never write the identity values into them. Besides
+ * saving that pass and the temporary arrays it needed, the operating system does not have to back
+ * with real memory the pages that are never touched.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+final class ImplicitArrays {
+
+	private ImplicitArrays() {
+		//Static helpers
+	}
+
+	/**
+	 * @param offsets array where each slot stores <code>parent - index</code>
+	 * @return a new array where each slot stores the parent
+	 */
+	static int[] decodeParents(int[] offsets) {
+
+		int[] parents = new int[offsets.length];
+		for(int i = 0 ; i < offsets.length ; i++) {
+			parents[i] = i + offsets[i];
+		}
+		return parents;
+	}
+
+	/**
+	 * @param parents array where each slot stores the parent
+	 * @return the same array, where each slot stores now <code>parent - index</code>
+	 */
+	static int[] encodeParents(int[] parents) {
+
+		for(int i = 0 ; i < parents.length ; i++) {
+			parents[i] -= i;
+		}
+		return parents;
+	}
+
+	/**
+	 * @param extraObjects array where each slot stores <code>size - 1</code>
+	 * @return a new array where each slot stores the size
+	 */
+	static int[] decodeSizes(int[] extraObjects) {
+
+		int[] sizes = new int[extraObjects.length];
+		for(int i = 0 ; i < extraObjects.length ; i++) {
+			sizes[i] = extraObjects[i] + 1;
+		}
+		return sizes;
+	}
+}
@@ -0,0 +1,127 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.jfcorugedo.algorithm.dinamicsearch.ConcurrentHistory.Operation;
+
+/**
+ * <p>
+ * Checks whether a concurrent history of union and isConnected commands is linearizable: whether there is
+ * an order of its commands that respects real time (a command that returned before another one was invoked
+ * goes first) and where every result is the one that a sequential weighted quick-union would return.
+ * </p>
+ *
+ * <p>
+ * It searches that order depth-first (Wing and Gong's algorithm). At each step, any command that was invoked
+ * before the first response of the commands still pending can go next. The sequential structure is a
+ * {@link RollbackWeightedQuickUnion}, so going back in the search just undoes the last union.
+ * </p>
+ * <p>
+ * The components only depend on which union commands have been applied, not on their order, so the state of
+ * the search is the set of commands already ordered, and a set that has already failed is not explored again.
+ * That set is stored in a long, so a history can have at most {@value #MAX_OPERATIONS} commands: long
+ * stress tests must be checked as many short histories.
+ * </p>
+ *
+ * @see ConcurrentHistory
+ * @author jfcorugedo
+ *
+ */
+public class LinearizabilityChecker {
+
+	public static final int MAX_OPERATIONS = 64;
+
+	private final Operation[] operations;
+
+	private final RollbackWeightedQuickUnion reference;
+
+	/** Sets of ordered commands from which no order can be completed */
+	private final Set<Long> failed = new HashSet<>();
+
+	private LinearizabilityChecker(int size, List<Operation> history) {
+
+		this.operations = history.toArray(new Operation[0]);
+		this.reference = new RollbackWeightedQuickUnion(size);
+	}
+
+	/**
+	 * @param size number of objects of the structure that produced the history
+	 * @param history commands executed, in any order
+	 * @return true if the history is linearizable
+	 */
+	public static boolean isLinearizable(int size, List<Operation> history) {
+
+		return linearization(size, history) != null;
+	}
+
+	/**
+	 * @param size number of objects of the structure that produced the history
+	 * @param history commands executed, in any order
+	 * @return the commands in an order that explains every result, or null if the history is not linearizable
+	 */
+	public static List<Operation> linearization(int size, List<Operation> history) {
+
+		if(history.size() > MAX_OPERATIONS) {
+			throw new IllegalArgumentException("A history can have at most " + MAX_OPERATIONS + " operations: " + history.size());
+		}
+
+		List<Operation> sorted = new ArrayList<>(history);
+		sorted.sort(Comparator.comparingLong(Operation::getInvocation));
+		LinearizabilityChecker checker = new LinearizabilityChecker(size, sorted);
+
+		int[] order = new int[sorted.size()];
+		if(!checker.search(0L, 0, order)) {
+			return null;
+		}
+		List<Operation> linearization = new ArrayList<>(order.length);
+		for(int index : order) {
+			linearization.add(checker.operations[index]);
+		}
+		return linearization;
+	}
+
+	private boolean search(long ordered, int length, int[] order) {
+
+		if(length == operations.length) {
+			return true;
+		}
+		if(failed.contains(ordered)) {
+			return false;
+		}
+
+		long firstResponse = Long.MAX_VALUE;
+		for(int i = 0 ; i < operations.length ; i++) {
+			if((ordered & (1L << i)) == 0) {
+				firstResponse = Math.min(firstResponse, operations[i].getResponse());
+			}
+		}
+
+		//Operations are sorted by invocation, so the candidates are a prefix of the pending ones
+		for(int i = 0 ; i < operations.length && operations[i].getInvocation() < firstResponse ; i++) {
+			if((ordered & (1L << i)) != 0) {
+				continue;
+			}
+			Operation operation = operations[i];
+			if(operation.getType() == Operation.UNION) {
+				boolean result = reference.tryUnion(operation.getP(), operation.getQ());
+				boolean found = result == operation.getResult() && search(ordered | (1L << i), length + 1, order);
+				reference.undo();
+				if(found) {
+					order[length] = i;
+					return true;
+				}
+			} else if(reference.isConnected(operation.getP(), operation.getQ()) == operation.getResult()
+					&& search(ordered | (1L << i), length + 1, order)) {
+				order[length] = i;
+				return true;
+			}
+		}
+
+		failed.add(ordered);
+		return false;
+	}
+}
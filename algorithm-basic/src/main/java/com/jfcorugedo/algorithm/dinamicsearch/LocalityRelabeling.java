@@ -0,0 +1,146 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Renumbers the objects of a {@link WeightedQuickUnionPathCompression} so that each component is stored
+ * in a contiguous block of its arrays, with the root at the beginning of the block.
+ * </p>
+ *
+ * <p>
+ * With big arrays, a find is bound by memory latency: after many unions the parent of an object can be
+ * anywhere in the array, so each link followed is a cache miss and, with multi-GB arrays, usually a TLB miss too.
+ * Relabeling builds a new structure where:
+ * </p>
+ * <ul>
+ * 		<li>Every object is linked directly to its root (trees have depth one)</li>
+ * 		<li>Objects are sorted by component, components in the order of their roots, and objects of the same
+ * 		component in their original order</li>
+ * </ul>
+ * <pre>
+ * old ids  0  1  2  3  4  5         new ids  0  1  2  3  4  5
+ * root     2  1  2  1  5  2         root     0  0  2  2  2  5
+ *                                   old id   1  3  2  0  5  4
+ * </pre>
+ * <p>
+ * So a find reads the object and its root, that is usually in the same page, if not in the same cache line.
+ * The ids change, so callers must translate them with {@link #toNew(int)} and {@link #toOld(int)}
+ * (two more accesses, but to arrays read in the order of the ids used by the caller).
+ * </p>
+ * <p>
+ * It is a full pass over the structure that allocates it again, so it should run in quiet periods,
+ * not after each union. The source structure is not modified beyond compressing its paths.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>relabel</th><th>find in the relabeled structure</th><th>translate an id</th></tr>
+ * 		<tr><td>locality relabeling</td><td>N finds + N</td><td>2 (until new unions)</td><td>1</td></tr>
+ * </table>
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class LocalityRelabeling {
+
+	/** New id of each old id */
+	private final int[] forward;
+
+	/** Old id of each new id */
+	private final int[] inverse;
+
+	private final WeightedQuickUnionPathCompression relabeled;
+
+	private LocalityRelabeling(int[] forward, int[] inverse, WeightedQuickUnionPathCompression relabeled) {
+
+		this.forward = forward;
+		this.inverse = inverse;
+		this.relabeled = relabeled;
+	}
+
+	/**
+	 * Builds a relabeled copy of the given structure
+	 */
+	public static LocalityRelabeling relabel(WeightedQuickUnionPathCompression source) {
+
+		int size = source.size();
+		int[] roots = new int[size];
+		//Number of objects of each component, indexed by its root
+		int[] start = new int[size + 1];
+		for(int element = 0 ; element < size ; element++) {
+			roots[element] = source.find(element);
+			start[roots[element] + 1]++;
+		}
+		for(int i = 1 ; i <= size ; i++) {
+			start[i] += start[i - 1];
+		}
+
+		int[] forward = new int[size];
+		int[] inverse = new int[size];
+		//Roots take the first slot of their block, so their members are placed from the second one
+		for(int element = 0 ; element < size ; element++) {
+			if(roots[element] == element) {
+				forward[element] = start[element]++;
+				inverse[forward[element]] = element;
+			}
+		}
+		for(int element = 0 ; element < size ; element++) {
+			if(roots[element] != element) {
+				forward[element] = start[roots[element]]++;
+				inverse[forward[element]] = element;
+			}
+		}
+
+		int[] tree = new int[size];
+		int[] treesSize = new int[size];
+		int root = 0;
+		for(int id = 0 ; id < size ; id++) {
+			int element = inverse[id];
+			if(roots[element] == element) {
+				root = id;
+			} else {
+				//Members follow their root in the same block
+				tree[id] = root - id;
+				treesSize[root]++;
+			}
+		}
+
+		return new LocalityRelabeling(forward, inverse, new WeightedQuickUnionPathCompression(tree, treesSize));
+	}
+
+	/**
+	 * @return the relabeled structure, whose objects are identified by their new ids
+	 */
+	public WeightedQuickUnionPathCompression getRelabeled() {
+		return relabeled;
+	}
+
+	/**
+	 * @return new id of an object given its id in the source structure
+	 */
+	public int toNew(int oldId) {
+		return forward[oldId];
+	}
+
+	/**
+	 * @return id in the source structure of an object given its new id
+	 */
+	public int toOld(int newId) {
+		return inverse[newId];
+	}
+
+	/**
+	 * @return a copy of the new id of each old id
+	 */
+	public int[] getForward() {
+		return forward.clone();
+	}
+
+	/**
+	 * @return a copy of the old id of each new id
+	 */
+	public int[] getInverse() {
+		return inverse.clone();
+	}
+}
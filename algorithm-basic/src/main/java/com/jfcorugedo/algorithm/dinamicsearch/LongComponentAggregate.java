@@ -0,0 +1,146 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * <p>
+ * Maintains a value for each connected component (the sum of the weights of its objects,
+ * the minimum of some attribute, the number of objects...) without traversing the objects.
+ * </p>
+ *
+ * <p>
+ * The values live in an array indexed by root. Initially each object is its own root, so
+ * values[p] holds the attribute of object p. Every time two trees are merged, the value of the
+ * absorbed root is combined into the value of the surviving one, so the value of a component is
+ * always stored in the position of its root:
+ * </p>
+ * <pre>
+ * WeightedQuickUnion algorithm = new WeightedQuickUnion(5);
+ * LongComponentAggregate total = LongComponentAggregate.sum(new long[]{10, 20, 30, 40, 50});
+ * algorithm.setMergeListener(total);
+ *
+ * algorithm.union(0, 3);
+ * total.valueOf(algorithm.find(3)); // 50
+ * </pre>
+ *
+ * <p>
+ * The combine operation must be associative and commutative (sum, min, max...) because the
+ * order in which objects are merged is decided by the algorithm.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>initialize</th><th>merge</th><th>value of a root</th></tr>
+ * 		<tr><td>N</td><td>3</td><td>1</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see MergeListener
+ * @author jfcorugedo
+ *
+ */
+public class LongComponentAggregate implements MergeListener {
+
+	private final long[] values;
+
+	private final LongBinaryOperator combine;
+
+	/**
+	 * @param initialValues value of each object before any union (the array is copied)
+	 * @param combine associative and commutative operation used to merge two values
+	 */
+	public LongComponentAggregate(long[] initialValues, LongBinaryOperator combine) {
+
+		this.values = initialValues.clone();
+		this.combine = combine;
+	}
+
+	/**
+	 * Sum of the attribute of all the objects of each component
+	 */
+	public static LongComponentAggregate sum(long[] attribute) {
+		return new LongComponentAggregate(attribute, Long::sum);
+	}
+
+	/**
+	 * Sum of the attribute of all the objects of each component
+	 */
+	public static LongComponentAggregate sum(int[] attribute) {
+		return sum(toLong(attribute));
+	}
+
+	/**
+	 * Minimum attribute of each component
+	 */
+	public static LongComponentAggregate min(long[] attribute) {
+		return new LongComponentAggregate(attribute, Math::min);
+	}
+
+	/**
+	 * Minimum attribute of each component
+	 */
+	public static LongComponentAggregate min(int[] attribute) {
+		return min(toLong(attribute));
+	}
+
+	/**
+	 * Maximum attribute of each component
+	 */
+	public static LongComponentAggregate max(long[] attribute) {
+		return new LongComponentAggregate(attribute, Math::max);
+	}
+
+	/**
+	 * Maximum attribute of each component
+	 */
+	public static LongComponentAggregate max(int[] attribute) {
+		return max(toLong(attribute));
+	}
+
+	/**
+	 * Number of objects of each component
+	 * @param size number of objects
+	 */
+	public static LongComponentAggregate count(int size) {
+
+		long[] ones = new long[size];
+		Arrays.fill(ones, 1);
+		return sum(ones);
+	}
+
+	/**
+	 * Number of objects of each component that match some condition
+	 * @param matches true for each object that must be counted
+	 */
+	public static LongComponentAggregate count(boolean[] matches) {
+
+		long[] values = new long[matches.length];
+		for(int i = 0 ; i < matches.length ; i++) {
+			values[i] = matches[i] ? 1 : 0;
+		}
+		return sum(values);
+	}
+
+	@Override
+	public void onMerge(int survivingRoot, int absorbedRoot) {
+
+		values[survivingRoot] = combine.applyAsLong(values[survivingRoot], values[absorbedRoot]);
+	}
+
+	/**
+	 * Returns the value of a component. Only meaningful for roots: use
+	 * {@link DynamicConnectivity#find(int)} to get the root of any object.
+	 *
+	 * @param root root of a component
+	 * @return value of that component
+	 */
+	public long valueOf(int root) {
+		return values[root];
+	}
+
+	private static long[] toLong(int[] attribute) {
+		return Arrays.stream(attribute).asLongStream().toArray();
+	}
+}
@@ -0,0 +1,267 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * <p>
+ * Files of big-endian longs that are only read or written sequentially, in blocks, and an external merge sort
+ * for the ones that do not fit in memory.
+ * </p>
+ *
+ * <p>
+ * The sort reads the file in runs as large as the buffer it is given, sorts each one in memory and writes it
+ * to a temporary file next to the output. Then it merges the runs, as many at once as blocks fit in the buffer,
+ * until only one is left. Every file is read and written from start to end.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: R records, M records in memory, B bytes per block
+ * <table>
+ * 		<tr><th>operation</th><th>sequential reads and writes</th><th>comparisons</th></tr>
+ * 		<tr><td>sort</td><td>2 * 8R / B per pass, 1 + log(R / M) / log(8M / B) passes</td><td>R log R</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see ExternalContraction
+ * @author jfcorugedo
+ *
+ */
+final class LongFiles {
+
+	/** Max number of runs merged at once, whatever the size of the buffer */
+	static final int MAX_FAN_IN = 256;
+
+	private LongFiles() {
+	}
+
+	/**
+	 * Sorts the records of a file in ascending order
+	 *
+	 * @param in file to sort. It can be the same as out
+	 * @param out its contents are replaced
+	 * @param buffer memory used to sort each run. Its contents are lost
+	 * @param blockSize bytes read from or written to disk at once
+	 * @param distinct if true, repeated records are written only once
+	 * @return number of records written
+	 */
+	static long sort(Path in, Path out, long[] buffer, int blockSize, boolean distinct) throws IOException {
+
+		Path directory = out.toAbsolutePath().getParent();
+		List<Path> runs = new ArrayList<>();
+		//Every run, so the ones of a merge pass that fails are deleted too
+		List<Path> created = new ArrayList<>();
+		try {
+			try(Reader reader = new Reader(in, blockSize)) {
+				while(reader.hasNext()) {
+					int length = 0;
+					while(length < buffer.length && reader.hasNext()) {
+						buffer[length++] = reader.next();
+					}
+					Arrays.sort(buffer, 0, length);
+
+					Path run = Files.createTempFile(directory, "run", ".tmp");
+					created.add(run);
+					runs.add(run);
+					try(Writer writer = new Writer(run, blockSize)) {
+						for(int i = 0 ; i < length ; i++) {
+							if(!distinct || i == 0 || buffer[i] != buffer[i - 1]) {
+								writer.write(buffer[i]);
+							}
+						}
+					}
+				}
+			}
+
+			//Each run being merged needs a block, and the buffer is not used while merging
+			int fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, (long) buffer.length * Long.BYTES / blockSize));
+			while(runs.size() > fanIn) {
+				List<Path> merged = new ArrayList<>();
+				for(int first = 0 ; first < runs.size() ; first += fanIn) {
+					Path run = Files.createTempFile(directory, "run", ".tmp");
+					created.add(run);
+					merged.add(run);
+					merge(runs.subList(first, Math.min(runs.size(), first + fanIn)), run, blockSize, distinct);
+				}
+				runs = merged;
+			}
+			return merge(runs, out, blockSize, distinct);
+		} finally {
+			for(Path run : created) {
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	/**
+	 * Merges sorted runs and deletes them
+	 *
+	 * @return number of records written
+	 */
+	private static long merge(List<Path> runs, Path out, int blockSize, boolean distinct) throws IOException {
+
+		List<Reader> readers = new ArrayList<>();
+		PriorityQueue<Reader> queue = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparingLong(Reader::peek));
+		try(Writer writer = new Writer(out, blockSize)) {
+			for(Path run : runs) {
+				Reader reader = new Reader(run, blockSize);
+				readers.add(reader);
+				if(reader.hasNext()) {
+					queue.add(reader);
+				}
+			}
+
+			boolean first = true;
+			long last = 0;
+			while(!queue.isEmpty()) {
+				Reader reader = queue.poll();
+				long record = reader.next();
+				if(!distinct || first || record != last) {
+					writer.write(record);
+					first = false;
+					last = record;
+				}
+				if(reader.hasNext()) {
+					queue.add(reader);
+				}
+			}
+			return writer.getCount();
+		} finally {
+			for(Reader reader : readers) {
+				reader.close();
+			}
+			for(Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	private static int wholeRecords(int blockSize) {
+		return Math.max(Long.BYTES, blockSize - blockSize % Long.BYTES);
+	}
+
+	/**
+	 * Reads the records of a file from start to end
+	 */
+	static final class Reader implements Closeable {
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer;
+
+		Reader(Path file, int blockSize) throws IOException {
+
+			this.channel = FileChannel.open(file, StandardOpenOption.READ);
+			this.buffer = ByteBuffer.allocate(wholeRecords(blockSize));
+			this.buffer.flip();
+		}
+
+		/**
+		 * @throws IOException if the file ends in the middle of a record
+		 */
+		boolean hasNext() throws IOException {
+
+			if(buffer.remaining() >= Long.BYTES) {
+				return true;
+			}
+			buffer.compact();
+			while(buffer.position() < Long.BYTES && channel.read(buffer) >= 0) {
+				//Keeps reading until a whole record or the end of the file
+			}
+			buffer.flip();
+			if(buffer.remaining() >= Long.BYTES) {
+				return true;
+			}
+			if(buffer.hasRemaining()) {
+				throw new IOException("The file ends in the middle of a record");
+			}
+			return false;
+		}
+
+		/**
+		 * @return the next record, without consuming it. Only valid after hasNext returns true
+		 */
+		long peek() {
+			return buffer.getLong(buffer.position());
+		}
+
+		/**
+		 * @return the next record. Only valid after hasNext returns true
+		 */
+		long next() {
+			return buffer.getLong();
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes records to a file, replacing its contents
+	 */
+	static final class Writer implements Closeable {
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer;
+
+		private long count;
+
+		Writer(Path file, int blockSize) throws IOException {
+
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			this.buffer = ByteBuffer.allocate(wholeRecords(blockSize));
+		}
+
+		void write(long record) throws IOException {
+
+			if(buffer.remaining() < Long.BYTES) {
+				flush();
+			}
+			buffer.putLong(record);
+			count++;
+		}
+
+		/**
+		 * Writes the records still in the buffer, so they can be read from the file
+		 */
+		void flush() throws IOException {
+
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * @return number of records written so far
+		 */
+		long getCount() {
+			return count;
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ * Quick-union whose parents are stored in a memory-mapped file instead of the heap, for sets of objects
+ * whose parent array fits in physical memory but not comfortably in the heap. It is not an out-of-core
+ * structure: unions and finds touch random pages, so once the file does not fit in memory almost every
+ * access is a page fault (see {@link SemiExternalConnectivity} for the external mode).
+ * </p>
+ *
+ * <p>
+ * Parents are stored as offsets (see {@link ImplicitArrays}). A file just created is full of zeros, so it
+ * already represents N roots, and the operating system does not even write the pages that are never touched.
+ * The file is mapped in segments of 1 GB, because a single mapping can not be larger than 2 GB.
+ * </p>
+ * <p>
+ * There is no second file for the sizes: roots are linked by the same pseudo-random priority as
+ * {@link ConcurrentQuickUnion}, mixed with a seed of each instance, which keeps the expected depth logarithmic
+ * whatever the order of the unions, and find uses path halving.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th></tr>
+ * 		<tr><td>memory-mapped q-u (randomized linking, path halving)</td><td>1</td><td>log*N expected</td><td>log*N expected</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see SemiExternalConnectivity
+ * @author jfcorugedo
+ *
+ */
+public class MappedQuickUnion implements DynamicConnectivity, Closeable, ParentForest {
+
+	/** Each segment maps 2^28 ints (1 GB) */
+	private static final int SEGMENT_SHIFT = 28;
+
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	private final int size;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer[] segments;
+
+	/** Mixed with the ids, so the order of the priorities is different in each instance */
+	private final int seed = ThreadLocalRandom.current().nextInt();
+
+	/**
+	 * Creates the file (replacing its contents if it already exists) and maps it
+	 *
+	 * @param file where the parents are stored. It is not deleted when this structure is closed
+	 * @param size number of objects
+	 */
+	public MappedQuickUnion(Path file, int size) throws IOException {
+
+		if(size < 0) {
+			throw new IllegalArgumentException("The size can not be negative: " + size);
+		}
+
+		this.size = size;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.segments = new MappedByteBuffer[(int) (((long) size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+		try {
+			for(int i = 0 ; i < segments.length ; i++) {
+				long first = (long) i << SEGMENT_SHIFT;
+				long length = Math.min(1L << SEGMENT_SHIFT, size - first);
+				//Mapping beyond the end of the file extends it with zeros
+				segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * Integer.BYTES, length * Integer.BYTES);
+			}
+		} catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		int rootP = findRoot(p);
+		int rootQ = findRoot(q);
+		if(rootP == rootQ) {
+			return false;
+		}
+		if(ConcurrentQuickUnion.priority(rootP ^ seed) < ConcurrentQuickUnion.priority(rootQ ^ seed)) {
+			set(rootP, rootQ - rootP);
+		} else {
+			set(rootQ, rootP - rootQ);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		return findRoot(p) == findRoot(q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		return findRoot(p);
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Writes the changes to the file
+	 */
+	public void flush() {
+
+		for(MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+	}
+
+	/**
+	 * Closes the file. The mapping is released when the garbage collector discards the segments
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Finds the root of the given object
+	 * @return
+	 */
+	protected int findRoot(int element) {
+
+		if(element < 0 || element >= size) {
+			throw new IndexOutOfBoundsException("Objects must be between 0 and " + (size - 1) + ": " + element);
+		}
+
+		int currentElement = element;
+		int offset = get(currentElement);
+		//A root element is connected to itself (its offset is 0)
+		while(offset != 0) {
+			//Link the element to its grandparent
+			int parentOffset = get(currentElement + offset);
+			set(currentElement, offset + parentOffset);
+			currentElement += offset + parentOffset;
+			offset = get(currentElement);
+		}
+
+		return currentElement;
+	}
+
+	private int get(int element) {
+		return segments[element >>> SEGMENT_SHIFT].getInt((element & SEGMENT_MASK) << 2);
+	}
+
+	private void set(int element, int offset) {
+		segments[element >>> SEGMENT_SHIFT].putInt((element & SEGMENT_MASK) << 2, offset);
+	}
+
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the parent of each node
+	 */
+	protected int[] getTree() {
+
+		int[] parents = new int[size];
+		for(int i = 0 ; i < size ; i++) {
+			parents[i] = i + get(i);
+		}
+		return parents;
+	}
+}
@@ -0,0 +1,41 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Callback notified every time a union command merges two different trees.
+ * </p>
+ *
+ * <p>
+ * Union commands over objects that are already connected are not notified, so the listener
+ * is called at most N-1 times for a set of N objects.
+ * </p>
+ *
+ * @see LongComponentAggregate
+ * @author jfcorugedo
+ *
+ */
+@FunctionalInterface
+public interface MergeListener {
+
+	/** Listener that ignores every merge */
+	MergeListener NONE = (survivingRoot, absorbedRoot) -> {};
+
+	/**
+	 * Called just after the root of one tree has been linked to the root of the other one
+	 *
+	 * @param survivingRoot root of the merged tree
+	 * @param absorbedRoot old root, now a child of survivingRoot
+	 */
+	void onMerge(int survivingRoot, int absorbedRoot);
+
+	/**
+	 * @return a listener that notifies this listener and then the other one
+	 */
+	default MergeListener andThen(MergeListener other) {
+
+		return (survivingRoot, absorbedRoot) -> {
+			onMerge(survivingRoot, absorbedRoot);
+			other.onMerge(survivingRoot, absorbedRoot);
+		};
+	}
+}
@@ -0,0 +1,156 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Answers a batch of lowest common ancestor queries over a forest at once, using Tarjan's offline algorithm.
+ * </p>
+ *
+ * <p>
+ * The forest is traversed depth-first. When an object has been completely explored (all its descendants too)
+ * it is marked as finished, and then joined with its parent in a {@link WeightedQuickUnionPathCompression},
+ * remembering that the ancestor of the new component is the parent. So, while an object u is being finished,
+ * every finished object v belongs to a component whose ancestor is the lowest common ancestor of u and v:
+ * </p>
+ * <pre>
+ *         0            Finishing 4: 3 is finished, and its component {1, 3} has ancestor 1,
+ *        / \           so lca(4, 3) = 1.
+ *       1   2          Finishing 2: 3 and 4 are finished, and the component {1, 3, 4} has been
+ *      / \             joined with 0, so lca(2, 3) = lca(2, 4) = 0.
+ *     3   4
+ * </pre>
+ *
+ * <p>
+ * Each query is registered in both of its objects, and it is answered when the second one is finished.
+ * The traversal uses its own stack, so deep trees do not overflow the call stack.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: N objects, Q queries
+ * <table>
+ * 		<tr><th>algorithm</th><th>batch of Q queries</th><th>one query</th></tr>
+ * 		<tr><td>Tarjan's offline lca</td><td>N + Q (times the inverse Ackermann function)</td><td>amortized over the batch</td></tr>
+ * 		<tr><td>climbing from both objects</td><td>Q * depth</td><td>depth (up to N)</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see TimestampedWeightedQuickUnion
+ * @author jfcorugedo
+ *
+ */
+public class OfflineLowestCommonAncestor {
+
+	/** Answer of a query whose objects belong to different trees */
+	public static final int NO_ANCESTOR = -1;
+
+	private OfflineLowestCommonAncestor() {
+		//Static utility
+	}
+
+	/**
+	 * @param parents parent of each object in the forest (roots are their own parent, like the trees of this package)
+	 * @param ps first object of each query
+	 * @param qs second object of each query
+	 * @return the lowest common ancestor of each pair of objects, or {@link #NO_ANCESTOR} if they are in different trees
+	 * @throws IllegalArgumentException if parents contains a cycle
+	 */
+	public static int[] lowestCommonAncestors(int[] parents, int[] ps, int[] qs) {
+
+		if(ps.length != qs.length) {
+			throw new IllegalArgumentException("There must be the same number of ps and qs");
+		}
+
+		int size = parents.length;
+
+		//Children of each object, stored contiguously: children of u are in [childStart[u], childStart[u + 1])
+		int[] childStart = new int[size + 1];
+		for(int element = 0 ; element < size ; element++) {
+			if(parents[element] != element) {
+				childStart[parents[element] + 1]++;
+			}
+		}
+		prefixSums(childStart);
+		int[] children = new int[childStart[size]];
+		int[] next = Arrays.copyOf(childStart, size);
+		for(int element = 0 ; element < size ; element++) {
+			if(parents[element] != element) {
+				children[next[parents[element]]++] = element;
+			}
+		}
+
+		//Queries of each object, stored the same way
+		int[] queryStart = new int[size + 1];
+		for(int i = 0 ; i < ps.length ; i++) {
+			queryStart[ps[i] + 1]++;
+			queryStart[qs[i] + 1]++;
+		}
+		prefixSums(queryStart);
+		int[] queries = new int[queryStart[size]];
+		int[] nextQuery = Arrays.copyOf(queryStart, size);
+		for(int i = 0 ; i < ps.length ; i++) {
+			queries[nextQuery[ps[i]]++] = i;
+			queries[nextQuery[qs[i]]++] = i;
+		}
+
+		int[] answers = new int[ps.length];
+		Arrays.fill(answers, NO_ANCESTOR);
+		WeightedQuickUnionPathCompression components = new WeightedQuickUnionPathCompression(size);
+		//Ancestor of each component, indexed by its root
+		int[] ancestor = new int[size];
+		int[] treeOf = new int[size];
+		boolean[] finished = new boolean[size];
+		//next[u] is now the next child of u to explore
+		System.arraycopy(childStart, 0, next, 0, size);
+		int[] stack = new int[size];
+		int visited = 0;
+
+		for(int root = 0 ; root < size ; root++) {
+			if(parents[root] != root) {
+				continue;
+			}
+			int top = 0;
+			stack[top++] = root;
+			treeOf[root] = root;
+			ancestor[root] = root;
+			visited++;
+			while(top > 0) {
+				int element = stack[top - 1];
+				if(next[element] < childStart[element + 1]) {
+					int child = children[next[element]++];
+					stack[top++] = child;
+					treeOf[child] = root;
+					ancestor[child] = child;
+					visited++;
+				} else {
+					top--;
+					finished[element] = true;
+					for(int i = queryStart[element] ; i < queryStart[element + 1] ; i++) {
+						int query = queries[i];
+						int other = ps[query] == element ? qs[query] : ps[query];
+						if(finished[other] && treeOf[other] == root) {
+							answers[query] = ancestor[components.find(other)];
+						}
+					}
+					if(element != root) {
+						int parent = parents[element];
+						components.union(parent, element);
+						ancestor[components.find(parent)] = parent;
+					}
+				}
+			}
+		}
+
+		if(visited != size) {
+			throw new IllegalArgumentException("The parents contain a cycle: only " + visited + " of " + size + " objects are reachable from a root");
+		}
+		return answers;
+	}
+
+	private static void prefixSums(int[] counts) {
+
+		for(int i = 1 ; i < counts.length ; i++) {
+			counts[i] += counts[i - 1];
+		}
+	}
+}
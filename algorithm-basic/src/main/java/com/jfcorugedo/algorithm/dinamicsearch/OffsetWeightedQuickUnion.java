@@ -0,0 +1,262 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Weighted quick-union with path compression where every object has an unknown value, and each link
+ * stores the difference between the value of the object and the value of its parent. It keeps a set of
+ * relative constraints <code>value(p) - value(q) = d</code> and answers, for any two connected objects,
+ * the difference that the constraints imply.
+ * </p>
+ *
+ * <p>
+ * Two groups of values are supported:
+ * </p>
+ * <ul>
+ * 		<li>{@link #additive(int)}: longs with addition (with the overflow of Java longs)</li>
+ * 		<li>{@link #parity(int)}: bits with XOR, where the difference of two objects is 0 if they are
+ * 		in the same side and 1 otherwise. Adding each edge of a graph with difference 1 checks if the graph is
+ * 		bipartite: the first edge that contradicts the previous ones closes an odd cycle</li>
+ * </ul>
+ * <p>
+ * The difference between an object and its root is the sum of the differences along its path. When path
+ * compression links an object to its grandparent, the difference with its parent is added to the one
+ * of its parent, so the stored differences are always right:
+ * </p>
+ * <pre>
+ * union(0, 1, 5)     value(0) - value(1) = 5
+ * union(1, 2, 3)     value(1) - value(2) = 3
+ * difference(0, 2) = 8
+ * union(2, 0, -8)    true: it agrees with the previous constraints
+ * union(2, 0, 1)     false: it contradicts them, and it is ignored
+ * </pre>
+ *
+ * <p>
+ * Parents are stored as offsets, sizes as the number of objects besides the root and differences as
+ * values where 0 is the identity of the group, so the arrays just allocated already represent N trees of
+ * one object (see {@link ImplicitArrays}).
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th><th>difference</th></tr>
+ * 		<tr><td>offset weighted q-u with path compression</td><td>1</td><td>log*N</td><td>log*N</td><td>log*N</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see WeightedQuickUnionPathCompression
+ * @author jfcorugedo
+ *
+ */
+public class OffsetWeightedQuickUnion implements DynamicConnectivity, ParentForest {
+
+	private final int[] tree;
+
+	/** Maintains the size of each tree */
+	private final int[] treesSize;
+
+	/** Difference between the value of each object and the value of its parent */
+	private final long[] differences;
+
+	/** True if differences are combined with XOR, false if they are added */
+	private final boolean xor;
+
+	/** Difference between the object and its root, computed by the last call to findRoot */
+	private long differenceToRoot;
+
+	private OffsetWeightedQuickUnion(int size, boolean xor) {
+
+		this.tree = new int[size];
+		this.treesSize = new int[size];
+		this.differences = new long[size];
+		this.xor = xor;
+	}
+
+	/**
+	 * @return a structure whose values are longs, combined with addition
+	 */
+	public static OffsetWeightedQuickUnion additive(int size) {
+		return new OffsetWeightedQuickUnion(size, false);
+	}
+
+	/**
+	 * @return a structure whose values are parities (0 or 1), combined with XOR
+	 */
+	public static OffsetWeightedQuickUnion parity(int size) {
+		return new OffsetWeightedQuickUnion(size, true);
+	}
+
+	/**
+	 * Connects p and q without any difference between their values
+	 */
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	/**
+	 * Connects p and q without any difference between their values. If they were already connected,
+	 * nothing changes (even if their difference was not 0)
+	 */
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		int rootP = findRoot(p);
+		long differenceP = differenceToRoot;
+		int rootQ = findRoot(q);
+		long differenceQ = differenceToRoot;
+
+		if(rootP == rootQ) {
+			return false;
+		}
+		link(rootP, differenceP, rootQ, differenceQ, 0);
+		return true;
+	}
+
+	/**
+	 * Adds the constraint <code>value(p) - value(q) = difference</code>
+	 *
+	 * @param difference for parity structures, 0 if p and q are in the same side and 1 otherwise
+	 * @return false if p and q were already connected with a different difference (the constraint is ignored),
+	 * true otherwise
+	 */
+	public boolean union(int p, int q, long difference) {
+
+		int rootP = findRoot(p);
+		long differenceP = differenceToRoot;
+		int rootQ = findRoot(q);
+		long differenceQ = differenceToRoot;
+
+		if(rootP == rootQ) {
+			return subtract(differenceP, differenceQ) == normalize(difference);
+		}
+		link(rootP, differenceP, rootQ, differenceQ, normalize(difference));
+		return true;
+	}
+
+	/**
+	 * @return <code>value(p) - value(q)</code>, implied by the constraints added so far
+	 * @throws IllegalStateException if p and q are not connected
+	 */
+	public long difference(int p, int q) {
+
+		int rootP = findRoot(p);
+		long differenceP = differenceToRoot;
+		int rootQ = findRoot(q);
+		long differenceQ = differenceToRoot;
+
+		if(rootP != rootQ) {
+			throw new IllegalStateException(p + " and " + q + " are not connected");
+		}
+		return subtract(differenceP, differenceQ);
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		return findRoot(p) == findRoot(q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	public int size() {
+		return tree.length;
+	}
+
+	/**
+	 * Links the smaller tree to the larger one, so that <code>value(p) - value(q) = difference</code>
+	 *
+	 * @param differenceP <code>value(p) - value(rootP)</code>
+	 * @param differenceQ <code>value(q) - value(rootQ)</code>
+	 */
+	private void link(int rootP, long differenceP, int rootQ, long differenceQ, long difference) {
+
+		if(treesSize[rootP] < treesSize[rootQ]) {
+			//value(rootP) - value(rootQ) = difference - differenceP + differenceQ
+			tree[rootP] = rootQ - rootP;
+			treesSize[rootQ] += treesSize[rootP] + 1;
+			differences[rootP] = subtract(combine(difference, differenceQ), differenceP);
+		} else {
+			//value(rootQ) - value(rootP) = differenceP - differenceQ - difference
+			tree[rootQ] = rootP - rootQ;
+			treesSize[rootP] += treesSize[rootQ] + 1;
+			differences[rootQ] = subtract(subtract(differenceP, differenceQ), difference);
+		}
+	}
+
+	/**
+	 * Finds the root of the given object, leaving in differenceToRoot the difference between them
+	 * @return
+	 */
+	protected int findRoot(int element) {
+
+		long difference = 0;
+		int currentElement = element;
+		int offset = tree[currentElement];
+		//A root element is connected to itself (its offset is 0)
+		while(offset != 0) {
+			//Link the element to its grandparent, adding the difference of its parent. Each slot is read once
+			int parent = currentElement + offset;
+			long differenceToGrandparent = combine(differences[currentElement], differences[parent]);
+			int grandparentOffset = offset + tree[parent];
+			differences[currentElement] = differenceToGrandparent;
+			tree[currentElement] = grandparentOffset;
+			difference = combine(difference, differenceToGrandparent);
+			currentElement += grandparentOffset;
+			offset = tree[currentElement];
+		}
+
+		differenceToRoot = difference;
+		return currentElement;
+	}
+
+	private long combine(long a, long b) {
+		return xor ? a ^ b : a + b;
+	}
+
+	private long subtract(long a, long b) {
+		return xor ? a ^ b : a - b;
+	}
+
+	/**
+	 * Parities are only the lowest bit of the difference
+	 */
+	private long normalize(long difference) {
+		return xor ? difference & 1 : difference;
+	}
+
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+		return ImplicitArrays.decodeParents(tree);
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the size of each tree
+	 */
+	protected int[] getTreesSize() {
+		return ImplicitArrays.decodeSizes(treesSize);
+	}
+}
@@ -0,0 +1,17 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * Structure that stores its components as a forest of parent links, so tools like {@link TraceReplay}
+ * can inspect the shape of its trees without knowing its concrete class.
+ *
+ * @see TraceReplay
+ * @author jfcorugedo
+ *
+ */
+interface ParentForest {
+
+	/**
+	 * @return a copy of the parent of each object (roots are their own parent)
+	 */
+	int[] parents();
+}
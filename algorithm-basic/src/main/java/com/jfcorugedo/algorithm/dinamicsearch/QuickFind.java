@@ -1,7 +1,5 @@
 package com.jfcorugedo.algorithm.dinamicsearch;
 
-import java.util.stream.IntStream;
-
 /**
  * <p>
  * This implementation tries to solve Dynamic connectivity problem using an approach that
@@ -19,6 +17,12 @@ import java.util.stream.IntStream;
  * </p>
  * 
  * <p>
+ * Each id is stored as an offset from its own index (id[p] - p), so an array just allocated
+ * (full of zeros) already means that each object is its own component.
+ * See {@link ImplicitArrays}.
+ * </p>
+ * 
+ * <p>
  * <img src="http://algs4.cs.princeton.edu/15uf/images/quick-find-overview.png" />
  * </p>
  * 
@@ -38,7 +42,7 @@ import java.util.stream.IntStream;
  * <b>Cost model</b>: number of array accesses (for read or write)
  * <table>
  * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th></tr>
- * 		<tr><td>quick-find</td><td>N</td><td>N</td><td>1</td></tr>
+ * 		<tr><td>quick-find</td><td>1</td><td>N</td><td>1</td></tr>
  * </table>
  * </p>
  * 
@@ -50,7 +54,7 @@ import java.util.stream.IntStream;
  * @author jfcorugedo
  *
  */
-public class QuickFind implements DynamicConnectivity{
+public class QuickFind implements DynamicConnectivity, ParentForest{
 
 	private int[] ids;
 	
@@ -60,32 +64,63 @@ public class QuickFind implements DynamicConnectivity{
 	 * @param size
 	 */
 	public QuickFind(int size) {
-		this.ids = IntStream.range(0, size).toArray();
+		this.ids = new int[size];
+	}
+	
+	/**
+	 * Creates a QuickFind algorithm whose components are already known
+	 * 
+	 * @param ids id of the component of each object. The id of a component must be one of its objects.
+	 */
+	QuickFind(int[] ids) {
+		this.ids = ImplicitArrays.encodeParents(ids);
 	}
 	
 	@Override
 	public void union(int p, int q) {
 		
-		int idP = ids[p];
-		int idQ = ids[q];
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+		
+		int idP = p + ids[p];
+		int idQ = q + ids[q];
+		if(idP == idQ) {
+			return false;
+		}
 		for(int i = 0 ; i < ids.length ; i++) {
-			if(ids[i] == idP) {
-				ids[i] = idQ;
+			if(i + ids[i] == idP) {
+				ids[i] = idQ - i;
 			}
 		}
+		return true;
 	}
 
 	@Override
 	public boolean isConnected(int p, int q) {
 		
-		return ids[p] == ids[q];
+		return p + ids[p] == q + ids[q];
+	}
+
+	@Override
+	public int find(int p) {
+		
+		return p + ids[p];
+	}
+
+	@Override
+	public int[] parents() {
+		//Each id is an object that has itself as id, so ids are a tree of depth one
+		return getIds();
 	}
 
 	/**
 	 * This method should be used only for testing  
-	 * @return
+	 * @return a copy of the array containing the id of each object
 	 */
 	protected int[] getIds() {
-		return this.ids;
+		return ImplicitArrays.decodeParents(this.ids);
 	}
 }
@@ -1,7 +1,5 @@
 package com.jfcorugedo.algorithm.dinamicsearch;
 
-import java.util.stream.IntStream;
-
 /**
  * <p>
  * This implementation tries to solve Dynamic connectivity problem using an approach that
@@ -20,7 +18,11 @@ import java.util.stream.IntStream;
  * To connect two objects, just link one of the roots to the other.   
  * </p>
  * <p>
- * A root element is connected to itself. So if tree[q] is equal to q then q is a root.
+ * A root element is connected to itself. So if the parent of q is q then q is a root.
+ * </p>
+ * <p>
+ * Parents are stored as offsets (tree[q] is the parent of q minus q), so a root has a 0 and the
+ * array just allocated already represents N roots. See {@link ImplicitArrays}.
  * </p>
  * 
  * <p>
@@ -32,13 +34,13 @@ import java.util.stream.IntStream;
  * Cost model: number of accesses (for read or write)
  * <table>
  * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th></tr>
- * 		<tr><td>quick-union</td><td>N</td><td>N</td><td>N (worst case)</td></tr>
+ * 		<tr><td>quick-union</td><td>1</td><td>N</td><td>N (worst case)</td></tr>
  * </table>
  * </p>
  * @author jfcorugedo
  *
  */
-public class QuickUnion implements DynamicConnectivity {
+public class QuickUnion implements DynamicConnectivity, Compactable, ParentForest {
 
 	private int[] tree;
 	
@@ -48,16 +50,26 @@ public class QuickUnion implements DynamicConnectivity {
 	 */
 	public QuickUnion(int size) {
 		
-		tree = IntStream.range(0, size).toArray();
+		tree = new int[size];
 	}
 	
 	@Override
 	public void union(int p, int q) {
 		
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+		
 		int rootP = findRoot(p);
 		int rootQ = findRoot(q);
 		
-		tree[rootP] = rootQ;
+		if(rootP == rootQ) {
+			return false;
+		}
+		tree[rootP] = rootQ - rootP;
+		return true;
 	}
 
 	@Override
@@ -66,6 +78,31 @@ public class QuickUnion implements DynamicConnectivity {
 		return findRoot(p) == findRoot(q);
 	}
 
+	@Override
+	public int find(int p) {
+		
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	@Override
+	public int size() {
+		return tree.length;
+	}
+
+	@Override
+	public int compact(Compaction compaction) {
+		return compaction.step(tree);
+	}
+
 	/**
 	 * Finds the root of the given object
 	 * @return
@@ -73,11 +110,24 @@ public class QuickUnion implements DynamicConnectivity {
 	protected int findRoot(int element){
 		
 		int currentElement = element;
-		//A root element is connected to itself
-		while(tree[currentElement] != currentElement) {
-			currentElement = tree[currentElement];
+		//A root element is connected to itself (its offset is 0)
+		while(tree[currentElement] != 0) {
+			currentElement += tree[currentElement];
 		}
 		
 		return currentElement;
 	}
+	
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing  
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+		return ImplicitArrays.decodeParents(tree);
+	}
 }
@@ -1,7 +1,5 @@
 package com.jfcorugedo.algorithm.dinamicsearch;
 
-import java.util.stream.IntStream;
-
 /**
  * <p>
  * This implementation improves Quick-union algorithm applying the approach of path compression.
@@ -12,6 +10,11 @@ import java.util.stream.IntStream;
  * </p>
  * 
  * <p>
+ * Parents are stored as offsets (tree[q] is the parent of q minus q), so a root has a 0 and the
+ * array just allocated already represents N roots. See {@link ImplicitArrays}.
+ * </p>
+ * 
+ * <p>
  * Cost model: number of accesses (for read or write)
  * </p>
  * <img src="http://algs4.cs.princeton.edu/15uf/images/uf-performance.png" />
@@ -19,7 +22,7 @@ import java.util.stream.IntStream;
  * @author jfcorugedo
  *
  */
-public class QuickUnionPathCompression implements DynamicConnectivity {
+public class QuickUnionPathCompression implements DynamicConnectivity, Compactable, ParentForest {
 
 	private int[] tree;
 	
@@ -29,16 +32,26 @@ public class QuickUnionPathCompression implements DynamicConnectivity {
 	 */
 	public QuickUnionPathCompression(int size) {
 		
-		tree = IntStream.range(0, size).toArray();
+		tree = new int[size];
 	}
 	
 	@Override
 	public void union(int p, int q) {
 		
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+		
 		int rootP = findRoot(p);
 		int rootQ = findRoot(q);
 		
-		tree[rootP] = rootQ;
+		if(rootP == rootQ) {
+			return false;
+		}
+		tree[rootP] = rootQ - rootP;
+		return true;
 	}
 
 	@Override
@@ -47,6 +60,31 @@ public class QuickUnionPathCompression implements DynamicConnectivity {
 		return findRoot(p) == findRoot(q);
 	}
 
+	@Override
+	public int find(int p) {
+		
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	@Override
+	public int size() {
+		return tree.length;
+	}
+
+	@Override
+	public int compact(Compaction compaction) {
+		return compaction.step(tree);
+	}
+
 	/**
 	 * Finds the root of the given object
 	 * @return
@@ -54,12 +92,30 @@ public class QuickUnionPathCompression implements DynamicConnectivity {
 	protected int findRoot(int element){
 		
 		int currentElement = element;
-		//A root element is connected to itself
-		while(tree[currentElement] != currentElement) {
-			tree[currentElement] = tree[tree[currentElement]];
-			currentElement = tree[currentElement];
+		int offset = tree[currentElement];
+		//A root element is connected to itself (its offset is 0)
+		while(offset != 0) {
+			//Link the element to its grandparent. Each slot is read once, so a background compaction
+			//that relinks it in the meantime can not mix two different parents
+			int grandparentOffset = offset + tree[currentElement + offset];
+			tree[currentElement] = grandparentOffset;
+			currentElement += grandparentOffset;
+			offset = tree[currentElement];
 		}
 		
 		return currentElement;
 	}
+	
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing  
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+		return ImplicitArrays.decodeParents(tree);
+	}
 }
@@ -0,0 +1,94 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * <p>
+ * Decorator that records every command executed on another {@link DynamicConnectivity}
+ * so the real workload can be replayed later with {@link TraceReplay}.
+ * </p>
+ * <pre>
+ * try(RecordingConnectivity algorithm = new RecordingConnectivity(new WeightedQuickUnionPathCompression(n), n, out)) {
+ *     algorithm.union(p, q);
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>
+ * Commands are encoded by a {@link TraceWriter} in memory and written in blocks of 64KB, so the
+ * overhead of each command is a handful of array accesses. Errors writing the trace are thrown as
+ * {@link UncheckedIOException}. The trace must be closed to write the last block.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class RecordingConnectivity implements DynamicConnectivity, Closeable {
+
+	private final DynamicConnectivity delegate;
+
+	private final TraceWriter trace;
+
+	/**
+	 * @param delegate Structure that will execute the commands
+	 * @param size Number of objects of delegate
+	 * @param out Stream where the trace will be written
+	 */
+	public RecordingConnectivity(DynamicConnectivity delegate, int size, OutputStream out) throws IOException {
+
+		this.delegate = delegate;
+		this.trace = new TraceWriter(out, size);
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		try {
+			trace.writeUnion(p, q);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		delegate.union(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		try {
+			trace.writeUnion(p, q);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return delegate.tryUnion(p, q);
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		try {
+			trace.writeIsConnected(p, q);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return delegate.isConnected(p, q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		try {
+			trace.writeFind(p);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return delegate.find(p);
+	}
+
+	@Override
+	public void close() throws IOException {
+		trace.close();
+	}
+}
@@ -0,0 +1,179 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Weighted quick-union that can be reset to N disconnected objects in constant time,
+ * so the same instance can be reused for many small problems without allocating new arrays.
+ * </p>
+ *
+ * <p>
+ * Besides the two arrays of {@link WeightedQuickUnion}, it keeps a stamp for each object: the
+ * number of the epoch in which the object was modified for the last time. The values of an object
+ * are only valid if its stamp is the current epoch. Otherwise they are ignored, and the object is
+ * considered a root of a tree of one object, exactly like an untouched slot (see {@link ImplicitArrays}).
+ * </p>
+ * <pre>
+ * epoch=1  tree=[0, 0, 0, -1, 0]  treesSize=[0, 0, 1, 0, 0]  stamps=[0, 0, 1, 1, 0]
+ * reset()
+ * epoch=2  tree=[0, 0, 0, -1, 0]  treesSize=[0, 0, 1, 0, 0]  stamps=[0, 0, 1, 1, 0]   (all ignored)
+ * </pre>
+ * <p>
+ * So resetting is just starting a new epoch. The objects touched in the previous epochs are cleaned
+ * lazily, the first time they are modified in the new one. Only when the epoch counter overflows
+ * (once every 2^32 resets) the stamps are really cleared.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th><th>reset</th></tr>
+ * 		<tr><td>reusable weighted q-u</td><td>1</td><td>3 log2N</td><td>2 log2N</td><td>1 (amortized)</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see WeightedQuickUnionPool
+ * @author jfcorugedo
+ *
+ */
+public class ReusableWeightedQuickUnion implements DynamicConnectivity, ParentForest {
+
+	private final int[] tree;
+
+	/** Maintains the size of each tree */
+	private final int[] treesSize;
+
+	/** Epoch in which each object was modified for the last time */
+	private final int[] stamps;
+
+	/** Starts at 1 because 0 is the stamp of the objects that have never been modified */
+	private int epoch = 1;
+
+	/**
+	 * Initializes this algorithm to handle a set of object of this specific size
+	 * @param size
+	 */
+	public ReusableWeightedQuickUnion(int size) {
+
+		tree = new int[size];
+		treesSize = new int[size];
+		stamps = new int[size];
+	}
+
+	/**
+	 * Disconnects all the objects
+	 */
+	public void reset() {
+
+		epoch++;
+		if(epoch == 0) {
+			//The counter has overflowed: old stamps could be mistaken for new ones
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	public int size() {
+		return tree.length;
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		int rootP = findRoot(p);
+		int rootQ = findRoot(q);
+
+		if(rootP != rootQ) {
+			touch(rootP);
+			touch(rootQ);
+			if(treesSize[rootP] < treesSize[rootQ]) {
+				tree[rootP] = rootQ - rootP;
+				treesSize[rootQ] += treesSize[rootP] + 1;
+			} else {
+				tree[rootQ] = rootP - rootQ;
+				treesSize[rootP] += treesSize[rootQ] + 1;
+			}
+		}
+		return rootP != rootQ;
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		return findRoot(p) == findRoot(q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		return findRoot(p);
+	}
+
+	/**
+	 * Finds the root of the given object
+	 * @return
+	 */
+	protected int findRoot(int element) {
+
+		int currentElement = element;
+		//A root element is connected to itself (its offset is 0 or it has not been modified in this epoch)
+		while(stamps[currentElement] == epoch && tree[currentElement] != 0) {
+			currentElement += tree[currentElement];
+		}
+
+		return currentElement;
+	}
+
+	/**
+	 * Discards the values of a previous epoch before modifying an object
+	 */
+	private void touch(int element) {
+
+		if(stamps[element] != epoch) {
+			stamps[element] = epoch;
+			tree[element] = 0;
+			treesSize[element] = 0;
+		}
+	}
+
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+
+		int[] parents = new int[tree.length];
+		for(int i = 0 ; i < tree.length ; i++) {
+			parents[i] = stamps[i] == epoch ? i + tree[i] : i;
+		}
+		return parents;
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the size of each tree
+	 */
+	protected int[] getTreesSize() {
+
+		int[] sizes = new int[treesSize.length];
+		for(int i = 0 ; i < treesSize.length ; i++) {
+			sizes[i] = stamps[i] == epoch ? treesSize[i] + 1 : 1;
+		}
+		return sizes;
+	}
+}
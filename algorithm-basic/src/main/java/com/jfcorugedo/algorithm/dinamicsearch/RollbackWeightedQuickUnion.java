@@ -0,0 +1,196 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Weighted quick-union that can undo its union commands in reverse order (like a stack).
+ * </p>
+ *
+ * <p>
+ * Every union command pushes into a history the root that has been linked to the other one
+ * (or nothing, if both objects were already connected). Undoing the last union just pops that
+ * root, makes it a root again and subtracts its size from its old parent.
+ * </p>
+ * <pre>
+ * union(2, 3)  tree=[0, 1, 2, 2, 4]  history=[3]
+ * union(3, 2)  tree=[0, 1, 2, 2, 4]  history=[3, -]
+ * undo()       tree=[0, 1, 2, 2, 4]  history=[3]
+ * undo()       tree=[0, 1, 2, 3, 4]  history=[]
+ * </pre>
+ *
+ * <p>
+ * Parents are stored as offsets and sizes as the number of objects besides the root, so the arrays
+ * just allocated already represent N trees of one object (see {@link ImplicitArrays}).
+ * Undoing a union writes a 0 again in the old root.
+ * </p>
+ *
+ * <p>
+ * Path compression cannot be used, because it would change links that the history
+ * does not know about. Weighting is enough to keep the depth of any node at most log2 N.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th><th>undo</th></tr>
+ * 		<tr><td>rollback weighted q-u</td><td>1</td><td>log2N</td><td>log2N</td><td>1</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see WeightedQuickUnion
+ * @author jfcorugedo
+ *
+ */
+public class RollbackWeightedQuickUnion implements DynamicConnectivity, ParentForest {
+
+	/** Value stored in the history when a union command does not link any root */
+	private static final int NO_LINK = -1;
+
+	private int[] tree;
+
+	/** Maintains the size of each tree */
+	private int[] treesSize;
+
+	/** Root linked by each union command, in the order they were executed */
+	private int[] history = new int[16];
+
+	private int historySize;
+
+	/**
+	 * Initializes this algorithm to handle a set of object of this specific size
+	 * @param size
+	 */
+	public RollbackWeightedQuickUnion(int size) {
+
+		tree = new int[size];
+		treesSize = new int[size];
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		int rootP = findRoot(p);
+		int rootQ = findRoot(q);
+
+		int linked = NO_LINK;
+		if(rootP != rootQ) {
+			if(treesSize[rootP] < treesSize[rootQ]) {
+				tree[rootP] = rootQ - rootP;
+				treesSize[rootQ] += treesSize[rootP] + 1;
+				linked = rootP;
+			} else {
+				tree[rootQ] = rootP - rootQ;
+				treesSize[rootP] += treesSize[rootQ] + 1;
+				linked = rootQ;
+			}
+		}
+		push(linked);
+		return linked != NO_LINK;
+	}
+
+	/**
+	 * Undoes the last union command that has not been undone yet
+	 *
+	 * @throws IllegalStateException if there is nothing to undo
+	 */
+	public void undo() {
+
+		if(historySize == 0) {
+			throw new IllegalStateException("There are no union commands to undo");
+		}
+
+		int linked = history[--historySize];
+		if(linked != NO_LINK) {
+			treesSize[linked + tree[linked]] -= treesSize[linked] + 1;
+			tree[linked] = 0;
+		}
+	}
+
+	/**
+	 * Undoes union commands until only the first <code>historySize</code> ones remain
+	 *
+	 * @param historySize value returned by {@link #getHistorySize()} at some point in the past
+	 */
+	public void rollback(int historySize) {
+
+		while(this.historySize > historySize) {
+			undo();
+		}
+	}
+
+	/**
+	 * @return number of union commands that can be undone
+	 */
+	public int getHistorySize() {
+		return historySize;
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		return findRoot(p) == findRoot(q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	/**
+	 * Finds the root of the given object
+	 * @return
+	 */
+	protected int findRoot(int element) {
+
+		int currentElement = element;
+		//A root element is connected to itself (its offset is 0)
+		while(tree[currentElement] != 0) {
+			currentElement += tree[currentElement];
+		}
+
+		return currentElement;
+	}
+
+	private void push(int linked) {
+
+		if(historySize == history.length) {
+			history = Arrays.copyOf(history, historySize * 2);
+		}
+		history[historySize++] = linked;
+	}
+
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+		return ImplicitArrays.decodeParents(tree);
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the size of each tree
+	 */
+	protected int[] getTreesSize() {
+		return ImplicitArrays.decodeSizes(treesSize);
+	}
+}
@@ -0,0 +1,357 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Connected components of graphs whose edges do not fit in memory. Edges are read from disk in large
+ * sequential blocks, and there are three modes, depending on what fits in memory:
+ * </p>
+ * <ul>
+ * 		<li>{@link #inMemory(int, int)}: the union-find of the vertices (a {@link WeightedQuickUnionPathCompression})
+ * 		is kept in the heap. Each edge is applied and forgotten, so the edge files are read once from start to end</li>
+ * 		<li>{@link #mapped(int, Path, int)}: the same, but the parents are kept off the heap, in a memory-mapped file
+ * 		(a {@link MappedQuickUnion}). It is not an out-of-core mode: unions touch random pages, so the file must fit
+ * 		in physical memory, and vertex counts whose parents would use more than half of it are rejected</li>
+ * 		<li>{@link #external(int, Path, long, int)}: when the vertices do not fit in memory either. Edges are
+ * 		appended to a work file, and when the labels are written its components are found by external
+ * 		sort-based contraction passes (see {@link ExternalContraction}). Every file is read and written
+ * 		sequentially, and memory use is bounded by the sort buffer, whatever the number of vertices</li>
+ * </ul>
+ *
+ * <p>
+ * An edge file is a sequence of records of {@value #EDGE_BYTES} bytes: the two vertices of each edge, as
+ * big-endian ints (the format of {@link java.io.DataOutputStream}). Edges can be added from any number of
+ * files, and when all of them have been read the label of every vertex (the root of its component) is
+ * written to a label file, as one big-endian int per vertex:
+ * </p>
+ * <pre>
+ * edges    0-1  2-3  1-4
+ * labels   0 0 2 2 0 5
+ * </pre>
+ * <p>
+ * In the external mode the label is always the smallest vertex of the component. In the other ones it is
+ * whatever root the union-find chose.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: E edges, V vertices, B bytes per block
+ * <table>
+ * 		<tr><th>operation</th><th>sequential reads</th><th>sequential writes</th><th>union-find operations</th></tr>
+ * 		<tr><td>addEdges</td><td>8E / B</td><td>0</td><td>E unions</td></tr>
+ * 		<tr><td>writeLabels</td><td>0</td><td>4V / B</td><td>V finds</td></tr>
+ * 		<tr><td>addEdges (external)</td><td>8E / B</td><td>8E / B</td><td>0</td></tr>
+ * 		<tr><td>writeLabels (external)</td><td colspan="3">the contraction passes of {@link ExternalContraction}</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see MappedQuickUnion
+ * @see ExternalContraction
+ * @author jfcorugedo
+ *
+ */
+public class SemiExternalConnectivity implements Closeable {
+
+	/** Bytes of each edge record: two ints */
+	public static final int EDGE_BYTES = 2 * Integer.BYTES;
+
+	/** 8 MB per read or write */
+	public static final int DEFAULT_BLOCK_SIZE = 8 << 20;
+
+	private final int vertices;
+
+	/** Union-find of the vertices, null in the external mode */
+	private final DynamicConnectivity connectivity;
+
+	/** Only in the external mode, as the fields below */
+	private final ExternalContraction contraction;
+
+	/** Work file with every edge read so far */
+	private final Path edgesFile;
+
+	private final LongFiles.Writer pendingEdges;
+
+	/** Buffer used for every read and write, so the blocks are never allocated again */
+	private final ByteBuffer block;
+
+	private long edges;
+
+	private long merges;
+
+	/** Components found by the last contraction, and number of edges read by then */
+	private long components;
+
+	private long labelledEdges;
+
+	private SemiExternalConnectivity(int vertices, DynamicConnectivity connectivity, int blockSize) {
+
+		this.vertices = vertices;
+		this.connectivity = connectivity;
+		this.contraction = null;
+		this.edgesFile = null;
+		this.pendingEdges = null;
+		//Whole records only, so an edge is never split between two blocks of the buffer
+		this.block = ByteBuffer.allocateDirect(Math.max(EDGE_BYTES, blockSize - blockSize % EDGE_BYTES));
+	}
+
+	private SemiExternalConnectivity(int vertices, Path workDirectory, int memoryRecords, int blockSize) throws IOException {
+
+		this.vertices = vertices;
+		this.connectivity = null;
+		this.contraction = new ExternalContraction(vertices, workDirectory, memoryRecords, blockSize);
+		this.edgesFile = Files.createTempFile(workDirectory, "edges", ".tmp");
+		this.pendingEdges = new LongFiles.Writer(edgesFile, blockSize);
+		this.block = ByteBuffer.allocateDirect(Math.max(EDGE_BYTES, blockSize - blockSize % EDGE_BYTES));
+		this.components = vertices;
+	}
+
+	/**
+	 * @param vertices number of vertices of the graph
+	 * @param blockSize bytes read from or written to disk at once
+	 * @return a structure that keeps the union-find in the heap
+	 */
+	public static SemiExternalConnectivity inMemory(int vertices, int blockSize) {
+
+		checkBlockSize(blockSize);
+		return new SemiExternalConnectivity(vertices, new WeightedQuickUnionPathCompression(vertices), blockSize);
+	}
+
+	/**
+	 * The parents are accessed at random, so the mapped file must fit in physical memory: this mode only
+	 * moves them out of the heap. Graphs with more vertices must use {@link #external(int, Path, long, int)}
+	 *
+	 * @param vertices number of vertices of the graph, at most {@link #maxMappedVertices()}
+	 * @param parentsFile file where the union-find is mapped. Its contents are replaced
+	 * @param blockSize bytes read from or written to disk at once
+	 * @return a structure that keeps the union-find in a memory-mapped file
+	 * @throws IllegalArgumentException if the parents would use more than half of the physical memory
+	 */
+	public static SemiExternalConnectivity mapped(int vertices, Path parentsFile, int blockSize) throws IOException {
+
+		checkBlockSize(blockSize);
+		checkMappedVertices(vertices, physicalMemory());
+		return new SemiExternalConnectivity(vertices, new MappedQuickUnion(parentsFile, vertices), blockSize);
+	}
+
+	/**
+	 * Nothing is kept in memory for each vertex: edges are appended to a work file, and their components
+	 * are found by external sort-based contraction passes when the labels are written
+	 *
+	 * @param vertices number of vertices of the graph
+	 * @param workDirectory where the work files are written. They need about five times the size of the edge files
+	 * @param memoryBytes memory of the sorts. About twice this memory is used while merging
+	 * @param blockSize bytes read from or written to disk at once
+	 * @return a structure that contracts the edges with external sorts
+	 */
+	public static SemiExternalConnectivity external(int vertices, Path workDirectory, long memoryBytes, int blockSize) throws IOException {
+
+		checkBlockSize(blockSize);
+		if(memoryBytes < blockSize) {
+			throw new IllegalArgumentException("The sorts need at least one block of memory: " + memoryBytes);
+		}
+		int memoryRecords = (int) Math.min(Integer.MAX_VALUE - 8, memoryBytes / Long.BYTES);
+		return new SemiExternalConnectivity(vertices, workDirectory, memoryRecords, blockSize);
+	}
+
+	/**
+	 * @return max number of vertices of the mapped mode: the ones whose parents fit in half of the physical memory
+	 */
+	public static long maxMappedVertices() {
+		return physicalMemory() / 2 / Integer.BYTES;
+	}
+
+	/**
+	 * Reads every edge of the file and connects its vertices
+	 *
+	 * @return number of edges read
+	 * @throws IOException if the file can not be read, it ends in the middle of an edge or it contains a vertex
+	 * out of range. The edges before the wrong one have already been added
+	 */
+	public long addEdges(Path edgesFile) throws IOException {
+
+		long read = 0;
+		try(FileChannel channel = FileChannel.open(edgesFile, StandardOpenOption.READ)) {
+			block.clear();
+			while(channel.read(block) >= 0) {
+				block.flip();
+				while(block.remaining() >= EDGE_BYTES) {
+					int p = block.getInt();
+					int q = block.getInt();
+					if(p < 0 || p >= vertices || q < 0 || q >= vertices) {
+						throw new IOException("Vertices must be between 0 and " + (vertices - 1) + ": edge " + read + " is " + p + "-" + q);
+					}
+					if(connectivity != null) {
+						merges += connectivity.tryUnion(p, q) ? 1 : 0;
+					} else {
+						pendingEdges.write(ExternalContraction.pair(p, q));
+					}
+					read++;
+				}
+				//Keeps the beginning of an edge that continues in the next block
+				block.compact();
+			}
+			if(block.position() != 0) {
+				throw new IOException("The file ends in the middle of an edge after " + read + " edges");
+			}
+		} finally {
+			edges += read;
+		}
+		return read;
+	}
+
+	/**
+	 * Writes the label of each vertex: the root of its component. In the external mode, this runs the contraction
+	 * passes over every edge read so far
+	 *
+	 * @param labelsFile its contents are replaced
+	 * @return number of components
+	 */
+	public long writeLabels(Path labelsFile) throws IOException {
+
+		if(contraction != null) {
+			pendingEdges.flush();
+			components = contraction.writeLabels(edgesFile, labelsFile);
+			labelledEdges = edges;
+			return components;
+		}
+
+		try(FileChannel channel = FileChannel.open(labelsFile, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			block.clear();
+			for(int vertex = 0 ; vertex < vertices ; vertex++) {
+				if(block.remaining() < Integer.BYTES) {
+					writeBlock(channel);
+				}
+				block.putInt(connectivity.find(vertex));
+			}
+			writeBlock(channel);
+		}
+		return getComponents();
+	}
+
+	/**
+	 * Writes an edge file, ps[i] and qs[i] being the vertices of edge i
+	 */
+	public static void writeEdges(Path edgesFile, int[] ps, int[] qs) throws IOException {
+
+		if(ps.length != qs.length) {
+			throw new IllegalArgumentException("There must be the same number of ps and qs");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BLOCK_SIZE);
+		try(FileChannel channel = FileChannel.open(edgesFile, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for(int i = 0 ; i < ps.length ; i++) {
+				if(buffer.remaining() < EDGE_BYTES) {
+					buffer.flip();
+					while(buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+					buffer.clear();
+				}
+				buffer.putInt(ps[i]).putInt(qs[i]);
+			}
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * @return number of edges read so far
+	 */
+	public long getEdges() {
+		return edges;
+	}
+
+	/**
+	 * @return number of components of the edges read so far
+	 * @throws IllegalStateException in the external mode, if edges have been read after writing the labels:
+	 * the components are only found when the labels are written
+	 */
+	public long getComponents() {
+
+		if(contraction == null) {
+			return vertices - merges;
+		}
+		if(labelledEdges != edges) {
+			throw new IllegalStateException("The components of the external mode are found when writing the labels");
+		}
+		return components;
+	}
+
+	public int getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return number of contraction passes so far, 0 if this is not the external mode
+	 */
+	int getContractionPasses() {
+		return contraction == null ? 0 : contraction.getPasses();
+	}
+
+	/**
+	 * Closes the mapped file, if any, and deletes the work file of the external mode
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if(connectivity instanceof Closeable) {
+			((Closeable) connectivity).close();
+		}
+		if(pendingEdges != null) {
+			try {
+				pendingEdges.close();
+			} finally {
+				Files.deleteIfExists(edgesFile);
+			}
+		}
+	}
+
+	private void writeBlock(FileChannel channel) throws IOException {
+
+		block.flip();
+		while(block.hasRemaining()) {
+			channel.write(block);
+		}
+		block.clear();
+	}
+
+	static void checkMappedVertices(int vertices, long physicalMemory) {
+
+		if((long) vertices * Integer.BYTES > physicalMemory / 2) {
+			throw new IllegalArgumentException("The parents of " + vertices + " vertices do not fit in half of the "
+					+ physicalMemory + " bytes of physical memory: use the external mode");
+		}
+	}
+
+	/**
+	 * @return bytes of physical memory, or the max heap if the platform does not tell
+	 */
+	private static long physicalMemory() {
+
+		OperatingSystemMXBean system = ManagementFactory.getOperatingSystemMXBean();
+		if(system instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) system).getTotalMemorySize();
+		}
+		return Runtime.getRuntime().maxMemory();
+	}
+
+	private static void checkBlockSize(int blockSize) {
+
+		if(blockSize < EDGE_BYTES) {
+			throw new IllegalArgumentException("Blocks must have room for at least one edge: " + blockSize);
+		}
+	}
+}
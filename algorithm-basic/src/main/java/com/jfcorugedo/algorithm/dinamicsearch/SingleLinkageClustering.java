@@ -0,0 +1,380 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Hierarchical clustering (single linkage) of a set of objects connected by weighted edges.
+ * </p>
+ *
+ * <p>
+ * Edges are applied to a {@link WeightedQuickUnionPathCompression} in increasing order of weight
+ * (Kruskal's algorithm). Every time an edge merges two clusters the merge is recorded in a
+ * dendrogram: a binary tree whose leaves are the N objects (nodes 0 to N-1) and where merge k
+ * creates the node N+k, parent of the two clusters it merges, at the height of the weight of the edge.
+ * </p>
+ * <p>
+ * For example, with five objects and the edges 1-2 (weight 1.0), 3-4 (1.5) and 0-1 (2.0):
+ * </p>
+ * <pre>
+ *  2.0         7
+ *           ___|___
+ *          |       |
+ *  1.5     |       |       6
+ *          |       |     __|__
+ *  1.0     |       5    |     |
+ *          |     __|__  |     |
+ *          0    1     2 3     4
+ * </pre>
+ *
+ * <p>
+ * The dendrogram is built once, applying the edges only once, and then it answers without
+ * applying them again:
+ * </p>
+ * <ul>
+ * 		<li>{@link #labelsAt(double)}: the clusters obtained using only the edges with a weight
+ * 		lower or equal than a threshold</li>
+ * 		<li>{@link #mergeHeight(int, int)}: the lowest threshold at which two objects are in the same cluster.
+ * 		The first query builds, for every node, its ancestors 1, 2, 4... levels up (binary lifting), so each
+ * 		query climbs log2N jumps even when the dendrogram is a chain (for instance, points on a line)</li>
+ * 		<li>{@link #mergeHeights(int[], int[])}: the same for a batch of pairs at once, using
+ * 		{@link OfflineLowestCommonAncestor} and without building the ancestors</li>
+ * </ul>
+ * <p>
+ * Parents are always created after their children, so the id of a node is always greater than the ids
+ * of all the nodes below it, and heights never decrease going up.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: N objects, E edges
+ * <table>
+ * 		<tr><th>build</th><th>labels at a threshold</th><th>merge height</th><th>batch of Q merge heights</th></tr>
+ * 		<tr><td>E log2E</td><td>N</td><td>log2N (N log2N the first time)</td><td>N + Q</td></tr>
+ * </table>
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class SingleLinkageClustering {
+
+	/** Parent of the nodes that have not been merged */
+	private static final int NO_PARENT = -1;
+
+	private final int size;
+
+	/** Parent of each node (objects and merges) in the dendrogram */
+	private final int[] parent;
+
+	/** Clusters merged by each merge */
+	private final int[] left;
+
+	private final int[] right;
+
+	/** Weight of the edge that produced each merge, in increasing order */
+	private final double[] heights;
+
+	private int merges;
+
+	/** ancestors[k][node] is the ancestor 2^k levels above the node (or the root of its tree). Built by the first query */
+	private int[][] ancestors;
+
+	/** Number of nodes above each node. Built with the ancestors */
+	private int[] depth;
+
+	/**
+	 * Builds the dendrogram. Edge i connects from[i] and to[i] with weight weights[i]
+	 *
+	 * @param size number of objects
+	 * @param from first object of each edge
+	 * @param to second object of each edge
+	 * @param weights weight of each edge (distance between its objects)
+	 */
+	public SingleLinkageClustering(int size, int[] from, int[] to, double[] weights) {
+
+		if(from.length != to.length || from.length != weights.length) {
+			throw new IllegalArgumentException("There must be the same number of from, to and weights");
+		}
+
+		this.size = size;
+		this.parent = new int[2 * size];
+		Arrays.fill(parent, NO_PARENT);
+		this.left = new int[Math.max(0, size - 1)];
+		this.right = new int[Math.max(0, size - 1)];
+		this.heights = new double[Math.max(0, size - 1)];
+
+		//Dendrogram node that represents the cluster of each root
+		int[] clusterOf = new int[size];
+		for(int i = 0 ; i < size ; i++) {
+			clusterOf[i] = i;
+		}
+
+		WeightedQuickUnionPathCompression components = new WeightedQuickUnionPathCompression(size);
+		int[] order = sortByWeight(weights);
+		double[] currentWeight = new double[1];
+		components.setMergeListener((survivingRoot, absorbedRoot) -> {
+			int node = size + merges;
+			left[merges] = clusterOf[survivingRoot];
+			right[merges] = clusterOf[absorbedRoot];
+			heights[merges] = currentWeight[0];
+			parent[clusterOf[survivingRoot]] = node;
+			parent[clusterOf[absorbedRoot]] = node;
+			clusterOf[survivingRoot] = node;
+			merges++;
+		});
+
+		for(int i = 0 ; i < order.length && merges < size - 1 ; i++) {
+			int edge = order[i];
+			currentWeight[0] = weights[edge];
+			components.union(from[edge], to[edge]);
+		}
+	}
+
+	/**
+	 * Clusters obtained using only the edges with a weight lower or equal than the threshold
+	 *
+	 * @return label of each object, numbered from 0 in order of the first object of each cluster
+	 */
+	public int[] labelsAt(double threshold) {
+
+		int applied = mergesUpTo(threshold);
+
+		//Top cluster of each node: itself, or the top cluster of its parent if the parent has been applied
+		int[] top = new int[size + applied];
+		for(int node = size + applied - 1 ; node >= 0 ; node--) {
+			int nodeParent = parent[node];
+			top[node] = nodeParent != NO_PARENT && nodeParent < size + applied ? top[nodeParent] : node;
+		}
+
+		int[] labelOfTop = new int[size + applied];
+		Arrays.fill(labelOfTop, -1);
+		int[] labels = new int[size];
+		int nextLabel = 0;
+		for(int object = 0 ; object < size ; object++) {
+			int cluster = top[object];
+			if(labelOfTop[cluster] < 0) {
+				labelOfTop[cluster] = nextLabel++;
+			}
+			labels[object] = labelOfTop[cluster];
+		}
+		return labels;
+	}
+
+	/**
+	 * @return number of clusters obtained using only the edges with a weight lower or equal than the threshold
+	 */
+	public int clustersAt(double threshold) {
+		return size - mergesUpTo(threshold);
+	}
+
+	/**
+	 * Lowest threshold at which p and q belong to the same cluster
+	 * (the height of their lowest common ancestor in the dendrogram)
+	 *
+	 * @return the height, {@link Double#NEGATIVE_INFINITY} if p equals q or
+	 * {@link Double#POSITIVE_INFINITY} if they are never connected
+	 */
+	public double mergeHeight(int p, int q) {
+
+		if(p < 0 || p >= size || q < 0 || q >= size) {
+			throw new IndexOutOfBoundsException("Objects must be between 0 and " + (size - 1) + ": " + p + ", " + q);
+		}
+		if(p == q) {
+			return Double.NEGATIVE_INFINITY;
+		}
+
+		if(ancestors == null) {
+			buildAncestors();
+		}
+
+		//Lift the deeper node to the depth of the other one
+		int nodeP = depth[p] >= depth[q] ? p : q;
+		int nodeQ = nodeP == p ? q : p;
+		int difference = depth[nodeP] - depth[nodeQ];
+		for(int k = 0 ; difference != 0 ; k++, difference >>>= 1) {
+			if((difference & 1) != 0) {
+				nodeP = ancestors[k][nodeP];
+			}
+		}
+		if(nodeP == nodeQ) {
+			return heights[nodeP - size];
+		}
+
+		//Climb both as long as their ancestors are different: they end just below their lowest common ancestor
+		for(int k = ancestors.length - 1 ; k >= 0 ; k--) {
+			if(ancestors[k][nodeP] != ancestors[k][nodeQ]) {
+				nodeP = ancestors[k][nodeP];
+				nodeQ = ancestors[k][nodeQ];
+			}
+		}
+		int lowestCommon = parent[nodeP];
+		return lowestCommon == NO_PARENT || lowestCommon != parent[nodeQ] ? Double.POSITIVE_INFINITY : heights[lowestCommon - size];
+	}
+
+	/**
+	 * Lowest threshold at which each pair of objects belongs to the same cluster, like {@link #mergeHeight(int, int)},
+	 * answering all the pairs in one pass over the dendrogram
+	 *
+	 * @param ps first object of each pair
+	 * @param qs second object of each pair
+	 * @return the merge height of each pair
+	 */
+	public double[] mergeHeights(int[] ps, int[] qs) {
+
+		if(ps.length != qs.length) {
+			throw new IllegalArgumentException("There must be the same number of ps and qs");
+		}
+		for(int i = 0 ; i < ps.length ; i++) {
+			if(ps[i] < 0 || ps[i] >= size || qs[i] < 0 || qs[i] >= size) {
+				throw new IndexOutOfBoundsException("Objects must be between 0 and " + (size - 1) + ": " + ps[i] + ", " + qs[i]);
+			}
+		}
+
+		int[] lowestCommon = OfflineLowestCommonAncestor.lowestCommonAncestors(forest(), ps, qs);
+		double[] result = new double[ps.length];
+		for(int i = 0 ; i < ps.length ; i++) {
+			if(lowestCommon[i] == OfflineLowestCommonAncestor.NO_ANCESTOR) {
+				result[i] = Double.POSITIVE_INFINITY;
+			} else {
+				//The only common ancestor that is an object is the object itself (p equals q)
+				result[i] = lowestCommon[i] < size ? Double.NEGATIVE_INFINITY : heights[lowestCommon[i] - size];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of merges of the dendrogram (N minus the number of clusters at the end)
+	 */
+	public int getMergeCount() {
+		return merges;
+	}
+
+	/**
+	 * @return one of the nodes merged by merge k (an object if it is lower than N, otherwise the node created by merge id-N)
+	 */
+	public int getLeft(int merge) {
+		checkMerge(merge);
+		return left[merge];
+	}
+
+	/**
+	 * @return the other node merged by merge k (an object if it is lower than N, otherwise the node created by merge id-N)
+	 */
+	public int getRight(int merge) {
+		checkMerge(merge);
+		return right[merge];
+	}
+
+	/**
+	 * @return weight of the edge that produced merge k
+	 */
+	public double getHeight(int merge) {
+		checkMerge(merge);
+		return heights[merge];
+	}
+
+	/**
+	 * @return parent of each node of the dendrogram, with the roots as their own parent
+	 */
+	private int[] forest() {
+
+		int nodes = size + merges;
+		int[] forest = new int[nodes];
+		for(int node = 0 ; node < nodes ; node++) {
+			forest[node] = parent[node] == NO_PARENT ? node : parent[node];
+		}
+		return forest;
+	}
+
+	/**
+	 * Parents have greater ids than their children, so visiting the nodes from the top down
+	 * the depth and the ancestors of the parent are always known
+	 */
+	private void buildAncestors() {
+
+		int nodes = size + merges;
+		int[] forest = forest();
+		int[] depths = new int[nodes];
+		for(int node = nodes - 1 ; node >= 0 ; node--) {
+			depths[node] = forest[node] == node ? 0 : depths[forest[node]] + 1;
+		}
+
+		//A node has at most nodes - 1 ancestors, so jumps up to the highest power of two below that are enough
+		int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(nodes));
+		int[][] jumps = new int[levels][];
+		jumps[0] = forest;
+		for(int k = 1 ; k < levels ; k++) {
+			int[] previous = jumps[k - 1];
+			int[] current = new int[nodes];
+			for(int node = 0 ; node < nodes ; node++) {
+				current[node] = previous[previous[node]];
+			}
+			jumps[k] = current;
+		}
+
+		depth = depths;
+		ancestors = jumps;
+	}
+
+	private void checkMerge(int merge) {
+
+		if(merge < 0 || merge >= merges) {
+			throw new IndexOutOfBoundsException("Merge must be between 0 and " + (merges - 1) + ": " + merge);
+		}
+	}
+
+	/**
+	 * @return number of merges with a height lower or equal than the threshold (heights are sorted)
+	 */
+	private int mergesUpTo(double threshold) {
+
+		int low = 0;
+		int high = merges;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(heights[middle] <= threshold) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Stable bottom-up merge sort of the indexes of the edges, so no index is boxed
+	 *
+	 * @return indexes of the edges in increasing order of weight
+	 */
+	static int[] sortByWeight(double[] weights) {
+
+		int[] order = new int[weights.length];
+		for(int i = 0 ; i < order.length ; i++) {
+			order[i] = i;
+		}
+		int[] buffer = new int[weights.length];
+
+		//Long widths and starts: with more than 2^30 edges, 2 * width does not fit in an int
+		for(long width = 1 ; width < order.length ; width *= 2) {
+			for(long start = 0 ; start < order.length - width ; start += 2 * width) {
+				int middle = (int) (start + width);
+				int end = (int) Math.min(start + 2 * width, order.length);
+				int i = (int) start;
+				int j = middle;
+				int k = i;
+				while(i < middle && j < end) {
+					buffer[k++] = Double.compare(weights[order[j]], weights[order[i]]) < 0 ? order[j++] : order[i++];
+				}
+				while(i < middle) {
+					buffer[k++] = order[i++];
+				}
+				while(j < end) {
+					buffer[k++] = order[j++];
+				}
+				System.arraycopy(buffer, (int) start, order, (int) start, end - (int) start);
+			}
+		}
+		return order;
+	}
+}
@@ -0,0 +1,267 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Dynamic connectivity over the edges seen in the last <code>windowLength</code> units of time.
+ * </p>
+ *
+ * <p>
+ * Each union command carries a timestamp. An edge belongs to the window while its timestamp is
+ * greater than <code>now - windowLength</code>, where <code>now</code> is the latest timestamp
+ * seen. Older edges expire, and isConnected only takes into account the edges of the window.
+ * </p>
+ *
+ * <p>
+ * Edges expire in the same order they arrive (first in, first out), but a
+ * {@link RollbackWeightedQuickUnion} can only undo its unions in reverse order (last in, first out).
+ * To remove the oldest edge without rebuilding the structure, the edges applied to it are kept
+ * in a stack where each edge is tagged as:
+ * </p>
+ * <ul>
+ * 		<li><b>front</b>: edge that will expire before every back edge. Front edges are stored in the
+ * 		stack in reverse order of arrival, so the oldest one is always the highest of them</li>
+ * 		<li><b>back</b>: edge that arrived after all the front edges</li>
+ * </ul>
+ * <p>
+ * New edges are pushed as back edges. To expire the oldest edge:
+ * </p>
+ * <ul>
+ * 		<li>If there are no front edges, all the edges are undone and applied again in reverse
+ * 		order, tagged as front edges. Now the oldest edge is on top</li>
+ * 		<li>If the top of the stack is a back edge, edges are undone until the same number of back
+ * 		and front edges have been undone (or there are no more front edges). Then the back edges are
+ * 		applied again, and the front edges on top of them</li>
+ * 		<li>Now the top of the stack is the oldest edge, so it is just undone</li>
+ * </ul>
+ * <p>
+ * Every edge takes part in O(log W) of these reorganizations, W being the number of edges in the window,
+ * so expiring an edge costs an amortized O(log W) undo and union commands, each of them O(log N) array accesses.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write), W edges in the window
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>expire (amortized)</th><th>find</th></tr>
+ * 		<tr><td>sliding window</td><td>N</td><td>log2N</td><td>log2W * log2N</td><td>log2N</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see RollbackWeightedQuickUnion
+ * @author jfcorugedo
+ *
+ */
+public class SlidingWindowConnectivity implements DynamicConnectivity {
+
+	private final long windowLength;
+
+	private final RollbackWeightedQuickUnion connectivity;
+
+	/** Edges applied to connectivity, in the same order (the top is the last one) */
+	private int[] stackP = new int[16];
+
+	private int[] stackQ = new int[16];
+
+	private boolean[] stackFront = new boolean[16];
+
+	private int stackSize;
+
+	private int frontEdges;
+
+	/** Timestamps of the edges of the window, in order of arrival (circular buffer) */
+	private long[] timestamps = new long[16];
+
+	private int oldest;
+
+	/** Edges undone while reorganizing the stack, in the order they were undone */
+	private int[] undoneP = new int[16];
+
+	private int[] undoneQ = new int[16];
+
+	private boolean[] undoneFront = new boolean[16];
+
+	private long now = Long.MIN_VALUE;
+
+	/**
+	 * @param size number of objects
+	 * @param windowLength edges older than this (relative to the latest timestamp) expire
+	 */
+	public SlidingWindowConnectivity(int size, long windowLength) {
+
+		if(windowLength <= 0) {
+			throw new IllegalArgumentException("Window length must be positive: " + windowLength);
+		}
+		this.windowLength = windowLength;
+		this.connectivity = new RollbackWeightedQuickUnion(size);
+	}
+
+	/**
+	 * Connects p and q using the latest timestamp seen
+	 */
+	@Override
+	public void union(int p, int q) {
+
+		union(p, q, now == Long.MIN_VALUE ? 0 : now);
+	}
+
+	/**
+	 * Connects p and q at the given time. The edge will expire once the time reaches
+	 * <code>timestamp + windowLength</code>
+	 *
+	 * @throws IllegalArgumentException if timestamp is older than the latest timestamp seen
+	 */
+	public void union(int p, int q, long timestamp) {
+
+		advanceTo(timestamp);
+
+		ensureCapacity(stackSize + 1);
+		timestamps[(oldest + stackSize) % timestamps.length] = timestamp;
+		push(p, q, false);
+	}
+
+	/**
+	 * Moves the window forward, expiring all the edges with a timestamp lower or equal
+	 * than <code>time - windowLength</code>
+	 *
+	 * @throws IllegalArgumentException if time is older than the latest timestamp seen
+	 */
+	public void advanceTo(long time) {
+
+		if(time < now) {
+			throw new IllegalArgumentException("Time cannot go backwards: " + time + " < " + now);
+		}
+		now = time;
+
+		while(stackSize > 0 && timestamps[oldest] <= time - windowLength) {
+			expireOldest();
+			oldest = (oldest + 1) % timestamps.length;
+		}
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		return connectivity.isConnected(p, q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		return connectivity.find(p);
+	}
+
+	/**
+	 * @return number of edges in the window
+	 */
+	public int getWindowSize() {
+		return stackSize;
+	}
+
+	private void expireOldest() {
+
+		if(frontEdges == 0) {
+			reverseAll();
+		} else if(!stackFront[stackSize - 1]) {
+			bringFrontEdgesToTop();
+		}
+
+		pop();
+	}
+
+	/**
+	 * Undoes all the (back) edges and applies them again as front edges, the oldest on top
+	 */
+	private void reverseAll() {
+
+		int size = stackSize;
+		int[] ps = Arrays.copyOf(stackP, size);
+		int[] qs = Arrays.copyOf(stackQ, size);
+		while(stackSize > 0) {
+			pop();
+		}
+		for(int i = size - 1 ; i >= 0 ; i--) {
+			push(ps[i], qs[i], true);
+		}
+	}
+
+	/**
+	 * Undoes edges until the same number of front and back edges have been undone
+	 * (or there are no more front edges) and applies them again with the front edges on top
+	 */
+	private void bringFrontEdgesToTop() {
+
+		int undone = 0;
+		int undoneBack = 0;
+		int undoneFrontEdges = 0;
+		int availableFront = frontEdges;
+		do {
+			int top = stackSize - 1;
+			undoneP[undone] = stackP[top];
+			undoneQ[undone] = stackQ[top];
+			undoneFront[undone] = stackFront[top];
+			if(stackFront[top]) {
+				undoneFrontEdges++;
+			} else {
+				undoneBack++;
+			}
+			undone++;
+			pop();
+		} while(undoneFrontEdges != undoneBack && undoneFrontEdges < availableFront);
+
+		//Back edges first and front edges on top, both keeping their relative order
+		for(int i = undone - 1 ; i >= 0 ; i--) {
+			if(!undoneFront[i]) {
+				push(undoneP[i], undoneQ[i], false);
+			}
+		}
+		for(int i = undone - 1 ; i >= 0 ; i--) {
+			if(undoneFront[i]) {
+				push(undoneP[i], undoneQ[i], true);
+			}
+		}
+	}
+
+	private void push(int p, int q, boolean front) {
+
+		connectivity.union(p, q);
+		stackP[stackSize] = p;
+		stackQ[stackSize] = q;
+		stackFront[stackSize] = front;
+		stackSize++;
+		if(front) {
+			frontEdges++;
+		}
+	}
+
+	private void pop() {
+
+		connectivity.undo();
+		stackSize--;
+		if(stackFront[stackSize]) {
+			frontEdges--;
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+
+		if(capacity <= stackP.length) {
+			return;
+		}
+
+		int newCapacity = stackP.length * 2;
+		stackP = Arrays.copyOf(stackP, newCapacity);
+		stackQ = Arrays.copyOf(stackQ, newCapacity);
+		stackFront = Arrays.copyOf(stackFront, newCapacity);
+		undoneP = new int[newCapacity];
+		undoneQ = new int[newCapacity];
+		undoneFront = new boolean[newCapacity];
+
+		long[] newTimestamps = new long[newCapacity];
+		for(int i = 0 ; i < stackSize ; i++) {
+			newTimestamps[i] = timestamps[(oldest + i) % timestamps.length];
+		}
+		timestamps = newTimestamps;
+		oldest = 0;
+	}
+}
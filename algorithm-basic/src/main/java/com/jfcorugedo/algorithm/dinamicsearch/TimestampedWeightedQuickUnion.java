@@ -0,0 +1,233 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+/**
+ * <p>
+ * Weighted quick-union that remembers when each link was created, so it can answer connectivity
+ * questions about any moment of its past (a partially persistent union-find).
+ * </p>
+ *
+ * <p>
+ * Time is the number of union commands executed so far: time t means "after the first t union commands".
+ * Every link between two roots stores the time at which it was created, and links are never changed
+ * afterwards (there is no path compression). Going up from any object, link times always grow, because
+ * a root can only be linked after all the links below it. So:
+ * </p>
+ * <ul>
+ * 		<li>The root of p at time t is the last node reached from p following only links created before or at t</li>
+ * 		<li>p and q were first connected at the time of the newest link on the paths from p and q to their
+ * 		lowest common ancestor. Climbing always from the node with the oldest link reaches that ancestor
+ * 		without computing the depths</li>
+ * </ul>
+ * <pre>
+ * union(2, 3)  union(0, 1)  union(3, 1)
+ *
+ *      2            links: 3-&gt;2 at time 1, 1-&gt;0 at time 2, 0-&gt;2 at time 3
+ *     / \
+ *    3   0          firstConnectedTime(3, 1) = 3
+ *        |          firstConnectedTime(0, 1) = 2
+ *        1          find(1, 2) = 0
+ * </pre>
+ *
+ * <p>
+ * Each query costs as much as a find (weighting keeps the depth at most log2 N), instead of replaying
+ * the union commands up to the time of the query.
+ * </p>
+ *
+ * <p>
+ * <b>Cost model</b>: number of array accesses (for read or write)
+ * <table>
+ * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find (at any time)</th><th>first connected time</th></tr>
+ * 		<tr><td>timestamped weighted q-u</td><td>1</td><td>log2N</td><td>log2N</td><td>log2N</td></tr>
+ * </table>
+ * </p>
+ *
+ * @see RollbackWeightedQuickUnion
+ * @author jfcorugedo
+ *
+ */
+public class TimestampedWeightedQuickUnion implements DynamicConnectivity, ParentForest {
+
+	/** Returned by {@link #firstConnectedTime(int, int)} when two objects are not connected yet */
+	public static final int NEVER = -1;
+
+	private int[] tree;
+
+	/** Maintains the size of each tree */
+	private int[] treesSize;
+
+	/** Time at which each object was linked to its parent (meaningless for roots) */
+	private int[] linkTime;
+
+	/** Number of union commands executed */
+	private int time;
+
+	/**
+	 * Initializes this algorithm to handle a set of object of this specific size
+	 * @param size
+	 */
+	public TimestampedWeightedQuickUnion(int size) {
+
+		tree = new int[size];
+		treesSize = new int[size];
+		linkTime = new int[size];
+	}
+
+	@Override
+	public void union(int p, int q) {
+
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+
+		int rootP = findRoot(p);
+		int rootQ = findRoot(q);
+		time++;
+
+		if(rootP != rootQ) {
+			if(treesSize[rootP] < treesSize[rootQ]) {
+				tree[rootP] = rootQ - rootP;
+				treesSize[rootQ] += treesSize[rootP] + 1;
+				linkTime[rootP] = time;
+			} else {
+				tree[rootQ] = rootP - rootQ;
+				treesSize[rootP] += treesSize[rootQ] + 1;
+				linkTime[rootQ] = time;
+			}
+		}
+		return rootP != rootQ;
+	}
+
+	@Override
+	public boolean isConnected(int p, int q) {
+
+		return findRoot(p) == findRoot(q);
+	}
+
+	@Override
+	public int find(int p) {
+
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	/**
+	 * @param time number of union commands
+	 * @return the root of p after the first <code>time</code> union commands
+	 */
+	public int find(int p, int time) {
+
+		int currentElement = p;
+		while(tree[currentElement] != 0 && linkTime[currentElement] <= time) {
+			currentElement += tree[currentElement];
+		}
+
+		return currentElement;
+	}
+
+	/**
+	 * @param time number of union commands
+	 * @return true if p and q were connected after the first <code>time</code> union commands
+	 */
+	public boolean isConnected(int p, int q, int time) {
+
+		int firstConnected = firstConnectedTime(p, q);
+		return firstConnected != NEVER && firstConnected <= time;
+	}
+
+	/**
+	 * @return the number of union commands after which p and q became connected (0 if p equals q),
+	 * or {@link #NEVER} if they are not connected yet
+	 */
+	public int firstConnectedTime(int p, int q) {
+
+		int nodeP = p;
+		int nodeQ = q;
+		int connected = 0;
+		while(nodeP != nodeQ) {
+			//Roots have no link yet, so they are always the last ones to climb
+			int timeP = tree[nodeP] == 0 ? Integer.MAX_VALUE : linkTime[nodeP];
+			int timeQ = tree[nodeQ] == 0 ? Integer.MAX_VALUE : linkTime[nodeQ];
+			if(timeP < timeQ) {
+				connected = timeP;
+				nodeP += tree[nodeP];
+			} else if(timeQ != Integer.MAX_VALUE) {
+				connected = timeQ;
+				nodeQ += tree[nodeQ];
+			} else {
+				//Two different roots
+				return NEVER;
+			}
+		}
+		return connected;
+	}
+
+	/**
+	 * Answers a batch of {@link #firstConnectedTime(int, int)} queries
+	 *
+	 * @param ps first object of each query
+	 * @param qs second object of each query
+	 * @return the first connected time of each pair
+	 */
+	public int[] firstConnectedTimes(int[] ps, int[] qs) {
+
+		if(ps.length != qs.length) {
+			throw new IllegalArgumentException("There must be the same number of ps and qs");
+		}
+
+		int[] times = new int[ps.length];
+		for(int i = 0 ; i < ps.length ; i++) {
+			times[i] = firstConnectedTime(ps[i], qs[i]);
+		}
+		return times;
+	}
+
+	/**
+	 * @return number of union commands executed
+	 */
+	public int getTime() {
+		return time;
+	}
+
+	/**
+	 * Finds the root of the given object
+	 * @return
+	 */
+	protected int findRoot(int element) {
+
+		int currentElement = element;
+		//A root element is connected to itself (its offset is 0)
+		while(tree[currentElement] != 0) {
+			currentElement += tree[currentElement];
+		}
+
+		return currentElement;
+	}
+
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the parent of each node
+	 */
+	protected int[] getTree() {
+		return ImplicitArrays.decodeParents(tree);
+	}
+
+	/**
+	 * This method should be used only for testing
+	 * @return a copy of the array containing the size of each tree
+	 */
+	protected int[] getTreesSize() {
+		return ImplicitArrays.decodeSizes(treesSize);
+	}
+}
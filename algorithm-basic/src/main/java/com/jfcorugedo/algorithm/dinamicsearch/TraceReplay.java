@@ -0,0 +1,278 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * <p>
+ * Replays a {@link ConnectivityTrace} recorded from a real workload against the implementations
+ * of this package and reports, for each of them:
+ * </p>
+ * <ul>
+ * 		<li>Throughput: commands per second replaying the whole trace</li>
+ * 		<li>Latency percentiles of a single command, in nanoseconds</li>
+ * 		<li>Depth of the resulting trees: average and maximum number of links between an object and its root</li>
+ * </ul>
+ * <p>
+ * Every implementation first replays the trace {@value #WARM_UP_REPLAYS} times without measuring anything,
+ * so the commands are already compiled by the JIT when the clock starts. Then it replays the trace twice,
+ * each time over a new instance: once measuring only the total time (so the cost of the clock does not
+ * distort the throughput) and once measuring each command. The depth is computed over the structure left by the second replay.
+ * </p>
+ * <pre>
+ * java com.jfcorugedo.algorithm.dinamicsearch.TraceReplay trace.bin [QuickFind WeightedQuickUnion ...]
+ * </pre>
+ *
+ * @see RecordingConnectivity
+ * @author jfcorugedo
+ *
+ */
+public class TraceReplay {
+
+	/** Replays over new instances before measuring, so the JIT has compiled the commands */
+	public static final int WARM_UP_REPLAYS = 3;
+
+	/** Implementations that can be replayed, by name */
+	public static final Map<String, IntFunction<DynamicConnectivity>> IMPLEMENTATIONS = createImplementations();
+
+	private TraceReplay() {
+		//Static utility
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		if(args.length == 0) {
+			System.err.println("Usage: TraceReplay <trace file> [implementation...]");
+			System.err.println("Implementations: " + IMPLEMENTATIONS.keySet());
+			System.exit(1);
+		}
+
+		ConnectivityTrace trace;
+		try(InputStream in = new FileInputStream(args[0])) {
+			trace = ConnectivityTrace.read(in);
+		}
+
+		List<String> names = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : new ArrayList<>(IMPLEMENTATIONS.keySet());
+		System.out.println(Report.HEADER);
+		for(String name : names) {
+			IntFunction<DynamicConnectivity> factory = IMPLEMENTATIONS.get(name);
+			if(factory == null) {
+				throw new IllegalArgumentException("Unknown implementation " + name + ". Valid ones: " + IMPLEMENTATIONS.keySet());
+			}
+			System.out.println(replay(name, trace, factory));
+		}
+	}
+
+	/**
+	 * Replays a trace against new instances created by the given factory
+	 *
+	 * @param name Name of the implementation, used in the report
+	 * @param trace Commands to replay
+	 * @param factory Creates an instance given the number of objects
+	 */
+	public static Report replay(String name, ConnectivityTrace trace, IntFunction<DynamicConnectivity> factory) {
+		return replay(name, trace, factory, WARM_UP_REPLAYS);
+	}
+
+	/**
+	 * Replays a trace against new instances created by the given factory
+	 *
+	 * @param name Name of the implementation, used in the report
+	 * @param trace Commands to replay
+	 * @param factory Creates an instance given the number of objects
+	 * @param warmUps Number of replays executed and discarded before the measured ones
+	 */
+	public static Report replay(String name, ConnectivityTrace trace, IntFunction<DynamicConnectivity> factory, int warmUps) {
+
+		byte[] commands = trace.getCommands();
+		int[] ps = trace.getPs();
+		int[] qs = trace.getQs();
+		int length = trace.getLength();
+
+		long result = 0;
+		for(int round = 0 ; round < warmUps ; round++) {
+			DynamicConnectivity warmUp = factory.apply(trace.getSize());
+			for(int i = 0 ; i < length ; i++) {
+				result += execute(warmUp, commands[i], ps[i], qs[i]);
+			}
+		}
+
+		DynamicConnectivity algorithm = factory.apply(trace.getSize());
+		long start = System.nanoTime();
+		for(int i = 0 ; i < length ; i++) {
+			result += execute(algorithm, commands[i], ps[i], qs[i]);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		algorithm = factory.apply(trace.getSize());
+		long[] latencies = new long[length];
+		for(int i = 0 ; i < length ; i++) {
+			long commandStart = System.nanoTime();
+			result += execute(algorithm, commands[i], ps[i], qs[i]);
+			latencies[i] = System.nanoTime() - commandStart;
+		}
+		Arrays.sort(latencies);
+
+		Report report = new Report(name, length, elapsed, latencies, depths(parentsOf(algorithm)));
+		report.checksum = result;
+		return report;
+	}
+
+	private static int execute(DynamicConnectivity algorithm, byte command, int p, int q) {
+
+		switch(command) {
+			case ConnectivityTrace.UNION:
+				algorithm.union(p, q);
+				return 0;
+			case ConnectivityTrace.IS_CONNECTED:
+				return algorithm.isConnected(p, q) ? 1 : 0;
+			default:
+				return algorithm.find(p);
+		}
+	}
+
+	/**
+	 * @return the parent of each object, or null if the implementation is not a {@link ParentForest}
+	 */
+	static int[] parentsOf(DynamicConnectivity algorithm) {
+
+		return algorithm instanceof ParentForest ? ((ParentForest) algorithm).parents() : null;
+	}
+
+	/**
+	 * Computes the depth of every object visiting each object a constant number of times
+	 *
+	 * @param tree Parent of each object (roots are their own parent)
+	 * @return depth of each object, or null if tree is null
+	 */
+	static int[] depths(int[] tree) {
+
+		if(tree == null) {
+			return null;
+		}
+
+		int[] depth = new int[tree.length];
+		Arrays.fill(depth, -1);
+		int[] path = new int[tree.length];
+		for(int element = 0 ; element < tree.length ; element++) {
+			int pathLength = 0;
+			int current = element;
+			while(depth[current] < 0 && tree[current] != current) {
+				path[pathLength++] = current;
+				current = tree[current];
+			}
+			if(depth[current] < 0) {
+				depth[current] = 0;
+			}
+			//Unwind the path: each node is one level deeper than its parent
+			for(int i = pathLength - 1 ; i >= 0 ; i--) {
+				depth[path[i]] = depth[tree[path[i]]] + 1;
+			}
+		}
+		return depth;
+	}
+
+	private static Map<String, IntFunction<DynamicConnectivity>> createImplementations() {
+
+		Map<String, IntFunction<DynamicConnectivity>> implementations = new LinkedHashMap<>();
+		implementations.put("QuickFind", QuickFind::new);
+		implementations.put("QuickUnion", QuickUnion::new);
+		implementations.put("QuickUnionPathCompression", QuickUnionPathCompression::new);
+		implementations.put("WeightedQuickUnion", WeightedQuickUnion::new);
+		implementations.put("WeightedQuickUnionPathCompression", WeightedQuickUnionPathCompression::new);
+		implementations.put("RollbackWeightedQuickUnion", RollbackWeightedQuickUnion::new);
+		implementations.put("ReusableWeightedQuickUnion", ReusableWeightedQuickUnion::new);
+		implementations.put("TimestampedWeightedQuickUnion", TimestampedWeightedQuickUnion::new);
+		implementations.put("OffsetWeightedQuickUnion", OffsetWeightedQuickUnion::additive);
+		implementations.put("ConcurrentQuickUnion", ConcurrentQuickUnion::new);
+		//A trace does not declare its ratio of reads: the structure adapts to the commands it receives
+		implementations.put("AdaptiveConnectivity", size -> new AdaptiveConnectivity(size, 0.5));
+		return Collections.unmodifiableMap(implementations);
+	}
+
+	/**
+	 * Results of replaying a trace against one implementation
+	 */
+	public static class Report {
+
+		static final String HEADER = String.format("%-34s %12s %14s %8s %8s %8s %8s %10s %9s %9s",
+				"implementation", "commands", "commands/s", "p50 ns", "p90 ns", "p99 ns", "p99.9 ns", "max ns", "avg depth", "max depth");
+
+		private final String implementation;
+
+		private final int commands;
+
+		private final long elapsedNanos;
+
+		private final long[] sortedLatencies;
+
+		private final double averageDepth;
+
+		private final int maxDepth;
+
+		/** Keeps the results of the replay alive, so the JIT cannot discard the commands */
+		long checksum;
+
+		Report(String implementation, int commands, long elapsedNanos, long[] sortedLatencies, int[] depths) {
+
+			this.implementation = implementation;
+			this.commands = commands;
+			this.elapsedNanos = elapsedNanos;
+			this.sortedLatencies = sortedLatencies;
+			this.averageDepth = depths == null ? Double.NaN : Arrays.stream(depths).average().orElse(0);
+			this.maxDepth = depths == null ? -1 : Arrays.stream(depths).max().orElse(0);
+		}
+
+		public String getImplementation() {
+			return implementation;
+		}
+
+		public double getCommandsPerSecond() {
+			return elapsedNanos == 0 ? Double.POSITIVE_INFINITY : commands * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * @param percentile value between 0 and 100
+		 * @return latency in nanoseconds of that percentile, or 0 if the trace is empty
+		 */
+		public long getLatencyPercentile(double percentile) {
+
+			if(sortedLatencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+			return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+		}
+
+		/**
+		 * @return average depth of the objects, NaN if the implementation is not a {@link ParentForest}
+		 */
+		public double getAverageDepth() {
+			return averageDepth;
+		}
+
+		/**
+		 * @return max depth of the objects, -1 if the implementation is not a {@link ParentForest}
+		 */
+		public int getMaxDepth() {
+			return maxDepth;
+		}
+
+		@Override
+		public String toString() {
+
+			return String.format("%-34s %12d %14.0f %8d %8d %8d %8d %10d %9.2f %9d",
+					implementation, commands, getCommandsPerSecond(),
+					getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99),
+					getLatencyPercentile(99.9), getLatencyPercentile(100), averageDepth, maxDepth);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>
+ * Writes a sequence of commands in the compact binary format read by {@link ConnectivityTrace}.
+ * </p>
+ *
+ * <p>
+ * The trace starts with a header (magic number, version and number of objects) followed by one
+ * record per command. Each record has two variable length numbers (7 bits per byte, the highest
+ * bit tells whether more bytes follow):
+ * </p>
+ * <ul>
+ * 		<li><code>p &lt;&lt; 2 | command</code></li>
+ * 		<li><code>q - p</code>, zig-zag encoded so small negative differences are small numbers</li>
+ * </ul>
+ * <p>
+ * Real workloads tend to connect objects with close identifiers, so most records take between
+ * two and five bytes instead of nine.
+ * </p>
+ *
+ * <p>
+ * Records are encoded in a private buffer and written to the stream in blocks, so writing a
+ * command costs a few array accesses and no allocation. This class is not thread safe.
+ * </p>
+ *
+ * @see RecordingConnectivity
+ * @author jfcorugedo
+ *
+ */
+public class TraceWriter implements Closeable, Flushable {
+
+	static final int MAGIC = 0x44435452; // "DCTR"
+
+	static final int VERSION = 1;
+
+	static final int UNION = 0;
+
+	static final int IS_CONNECTED = 1;
+
+	static final int FIND = 2;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Max size of a record: two numbers of at most ten bytes */
+	private static final int MAX_RECORD_SIZE = 20;
+
+	private final OutputStream out;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private int position;
+
+	/**
+	 * Writes the header of the trace
+	 *
+	 * @param out Stream that will contain the trace
+	 * @param size Number of objects of the recorded structure
+	 */
+	public TraceWriter(OutputStream out, int size) throws IOException {
+
+		this.out = out;
+		writeInt(MAGIC);
+		writeVarLong(VERSION);
+		writeVarLong(size);
+	}
+
+	public void writeUnion(int p, int q) throws IOException {
+		write(UNION, p, q);
+	}
+
+	public void writeIsConnected(int p, int q) throws IOException {
+		write(IS_CONNECTED, p, q);
+	}
+
+	public void writeFind(int p) throws IOException {
+		write(FIND, p, p);
+	}
+
+	@Override
+	public void flush() throws IOException {
+
+		out.write(buffer, 0, position);
+		position = 0;
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		try {
+			flush();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void write(int command, int p, int q) throws IOException {
+
+		if(position + MAX_RECORD_SIZE > buffer.length) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+		writeVarLong(((long) p << 2) | command);
+		long difference = (long) q - p;
+		writeVarLong((difference << 1) ^ (difference >> 63));
+	}
+
+	private void writeVarLong(long value) {
+
+		while((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeInt(int value) {
+
+		buffer[position++] = (byte) (value >>> 24);
+		buffer[position++] = (byte) (value >>> 16);
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+}
@@ -1,8 +1,5 @@
 package com.jfcorugedo.algorithm.dinamicsearch;
 
-import java.util.Arrays;
-import java.util.stream.IntStream;
-
 /**
  * <p>
  * This is a implementation of quick-union algorithm using an improvement called Weighted
@@ -23,7 +20,8 @@ import java.util.stream.IntStream;
  * When joining two trees of equal size, this weighted quick union convention is to
  * make the root of the second tree point to the root of the first tree. Also, this weighted
  * quick union algorithm performs union by size (number of nodes) -  not union by height -
- * and does not do path compression.
+ * and does not do path compression. Objects are only linked directly to their roots when
+ * {@link #compact(Compaction)} is called explicitly (see {@link BackgroundCompactor}).
  * </p>
  * 
  * <p>
@@ -61,39 +59,59 @@ import java.util.stream.IntStream;
  * Because 2^(log2 N) * 1 = N that the max number of nodes in the tree
  * 
  * <p>
+ * Internally both arrays are stored in an implicit form, so that a new array full of zeros already
+ * represents N trees of one object (see {@link ImplicitArrays}): tree stores the offset from each
+ * object to its parent and treesSize stores the number of objects of each tree besides its root.
+ * The example above is really stored as:
+ * </p>
+ * <pre>
+ * tree=[0, 0, 0, -1, 0]
+ * treesSize=[0, 0, 1, 0, 0]
+ * </pre>
+ * 
+ * <p>
  * <b>Cost model</b>: number of array accesses (for read or write)
  * <table>
  * 		<tr><th>algorithm</th><th>initialize</th><th>union</th><th>find</th></tr>
- * 		<tr><td>weighted q-u</td><td>N</td><td>log2N</td><td>log2N</td></tr>
+ * 		<tr><td>weighted q-u</td><td>1</td><td>log2N</td><td>log2N</td></tr>
  * </table>
  * </p>
  * @author jfcorugedo
  *
  */
-public class WeightedQuickUnion implements DynamicConnectivity {
+public class WeightedQuickUnion implements DynamicConnectivity, Compactable, ParentForest {
 
 	private int[] tree;
 	
 	/** Maintains the size of each tree*/
 	private int[] treesSize;
 	
+	/** Notified every time two different trees are merged */
+	private MergeListener mergeListener = MergeListener.NONE;
+	
 	/**
 	 * Initializes this algorithm to handle a set of object of this specific size
 	 * @param size
 	 */
 	public WeightedQuickUnion(int size) {
 		
-		tree = IntStream.range(0, size).toArray();
-		treesSize = Arrays.stream(new int[size]).map(value -> 1).toArray();
+		tree = new int[size];
+		treesSize = new int[size];
 	}
 	
 	@Override
 	public void union(int p, int q) {
 		
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+		
 	    if(p == q){
 	        //Both elements are the same, and this structure is reflexive: 
 	        //each element is always connected to each self
-	        return;
+	        return false;
 	    }
 	    
 		int rootP = findRoot(p);
@@ -101,21 +119,59 @@ public class WeightedQuickUnion implements DynamicConnectivity {
 		
 		if(rootP != rootQ) {
 			if(treesSize[rootP] < treesSize[rootQ]) {
-				tree[rootP] = rootQ;
-				treesSize[rootQ] += treesSize[rootP];
+				tree[rootP] = rootQ - rootP;
+				treesSize[rootQ] += treesSize[rootP] + 1;
+				mergeListener.onMerge(rootQ, rootP);
 			} else {
-				tree[rootQ] = rootP;
-				treesSize[rootP] += treesSize[rootQ];
+				tree[rootQ] = rootP - rootQ;
+				treesSize[rootP] += treesSize[rootQ] + 1;
+				mergeListener.onMerge(rootP, rootQ);
 			}
 		}
+		return rootP != rootQ;
 	}
 
+	/**
+	 * Registers a listener that will be notified every time a union command merges two
+	 * different trees. Use {@link MergeListener#andThen(MergeListener)} to register more than one.
+	 * 
+	 * @param mergeListener listener to notify, or null to stop notifying merges
+	 */
+	public void setMergeListener(MergeListener mergeListener) {
+		this.mergeListener = mergeListener == null ? MergeListener.NONE : mergeListener;
+	}
+	
 	@Override
 	public boolean isConnected(int p, int q) {
 		
 		return findRoot(p) == findRoot(q);
 	}
 
+	@Override
+	public int find(int p) {
+		
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	/**
+	 * @return number of objects
+	 */
+	@Override
+	public int size() {
+		return tree.length;
+	}
+
+	@Override
+	public int compact(Compaction compaction) {
+		return compaction.step(tree);
+	}
+
 	/**
 	 * Finds the root of the given object
 	 * @return
@@ -123,27 +179,32 @@ public class WeightedQuickUnion implements DynamicConnectivity {
 	protected int findRoot(int element){
 		
 		int currentElement = element;
-		//A root element is connected to itself
-		while(tree[currentElement] != currentElement) {
-			currentElement = tree[currentElement];
+		//A root element is connected to itself (its offset is 0)
+		while(tree[currentElement] != 0) {
+			currentElement += tree[currentElement];
 		}
 		
 		return currentElement;
 	}
 	
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
 	/**
 	 * This method should be used only for testing  
-	 * @return the array containing the parent of each node
+	 * @return a copy of the array containing the parent of each node
 	 */
 	protected int[] getTree() {
-		return tree;
+		return ImplicitArrays.decodeParents(tree);
 	}
 	
 	/**
      * This method should be used only for testing  
-     * @return the array containing the size of each tree
+     * @return a copy of the array containing the size of each tree
      */
 	protected int[] getTreesSize() {
-	    return treesSize;
+	    return ImplicitArrays.decodeSizes(treesSize);
 	}
 }
@@ -1,14 +1,16 @@
 package com.jfcorugedo.algorithm.dinamicsearch;
 
-import java.util.Arrays;
-import java.util.stream.IntStream;
-
 /**
  * <p>
  * This is an improvement of quick-union algorithm using two techniques: Weighted and path compression
  * </p>
  * 
  * <p>
+ * Parents are stored as offsets and sizes as the number of objects besides the root, so the arrays
+ * just allocated already represent N trees of one object. See {@link ImplicitArrays}.
+ * </p>
+ * 
+ * <p>
  * Cost model: number of accesses (for read or write)
  * </p>
  * <img src="http://algs4.cs.princeton.edu/15uf/images/uf-performance.png" />
@@ -19,30 +21,54 @@ import java.util.stream.IntStream;
  * @author jfcorugedo
  *
  */
-public class WeightedQuickUnionPathCompression implements DynamicConnectivity {
+public class WeightedQuickUnionPathCompression implements DynamicConnectivity, Compactable, ParentForest {
 
 	private int[] tree;
 	
 	/** Maintains the size of each tree */
 	private int[] treesSize;
 	
+	/** Notified every time two different trees are merged */
+	private MergeListener mergeListener = MergeListener.NONE;
+	
 	/**
 	 * Initializes this algorithm to handle a set of object of this specific size
 	 * @param size
 	 */
 	public WeightedQuickUnionPathCompression(int size) {
 		
-		tree = IntStream.range(0, size).toArray();
-		treesSize = Arrays.stream(new int[size]).map(value -> 1).toArray();
+		tree = new int[size];
+		treesSize = new int[size];
 	}
-	
+
+	/**
+	 * Initializes this algorithm with trees already built, using the implicit encoding of this class
+	 * (parents as offsets and sizes as the number of objects besides the root). The arrays are not copied
+	 *
+	 * @see LocalityRelabeling
+	 */
+	WeightedQuickUnionPathCompression(int[] tree, int[] treesSize) {
+
+		if(tree.length != treesSize.length) {
+			throw new IllegalArgumentException("tree and treesSize must have the same length");
+		}
+		this.tree = tree;
+		this.treesSize = treesSize;
+	}
+
 	@Override
 	public void union(int p, int q) {
 		
+		tryUnion(p, q);
+	}
+
+	@Override
+	public boolean tryUnion(int p, int q) {
+		
 	    if(p == q){
             //Both elements are the same, and this structure is reflexive: 
             //each element is always connected to each self
-            return;
+            return false;
         }
 	    
 		int rootP = findRoot(p);
@@ -50,21 +76,51 @@ public class WeightedQuickUnionPathCompression implements DynamicConnectivity {
 		
 		if(rootP != rootQ) {
 			if(treesSize[rootP] < treesSize[rootQ]) {
-			    tree[rootP] = rootQ;
-                treesSize[rootQ] += treesSize[rootP];
+			    tree[rootP] = rootQ - rootP;
+                treesSize[rootQ] += treesSize[rootP] + 1;
+                mergeListener.onMerge(rootQ, rootP);
 			} else {
-			    tree[rootQ] = rootP;
-                treesSize[rootP] += treesSize[rootQ];
+			    tree[rootQ] = rootP - rootQ;
+                treesSize[rootP] += treesSize[rootQ] + 1;
+                mergeListener.onMerge(rootP, rootQ);
 			}
 		}
+		return rootP != rootQ;
 	}
 
+	/**
+	 * Registers a listener that will be notified every time a union command merges two
+	 * different trees. Use {@link MergeListener#andThen(MergeListener)} to register more than one.
+	 * 
+	 * @param mergeListener listener to notify, or null to stop notifying merges
+	 */
+	public void setMergeListener(MergeListener mergeListener) {
+		this.mergeListener = mergeListener == null ? MergeListener.NONE : mergeListener;
+	}
+	
 	@Override
 	public boolean isConnected(int p, int q) {
 		
 		return findRoot(p) == findRoot(q);
 	}
 
+	@Override
+	public int find(int p) {
+		
+		return findRoot(p);
+	}
+
+	@Override
+	public void isConnectedAll(int[] ps, int[] qs, boolean[] out) {
+
+		BatchQueries.isConnectedAll(tree, ps, qs, out);
+	}
+
+	@Override
+	public int compact(Compaction compaction) {
+		return compaction.step(tree);
+	}
+
 	/**
 	 * Finds the root of the given object
 	 * @return
@@ -72,28 +128,62 @@ public class WeightedQuickUnionPathCompression implements DynamicConnectivity {
 	protected int findRoot(int element){
 		
 		int currentElement = element;
-		//A root element is connected to itself
-		while(tree[currentElement] != currentElement) {
-			tree[currentElement] = tree[tree[currentElement]];
-			currentElement = tree[currentElement];
+		int offset = tree[currentElement];
+		//A root element is connected to itself (its offset is 0)
+		while(offset != 0) {
+			//Link the element to its grandparent. Each slot is read once, so a background compaction
+			//that relinks it in the meantime can not mix two different parents
+			int grandparentOffset = offset + tree[currentElement + offset];
+			tree[currentElement] = grandparentOffset;
+			currentElement += grandparentOffset;
+			offset = tree[currentElement];
 		}
 		
 		return currentElement;
 	}
 	
+	/**
+	 * @return number of objects
+	 */
+	@Override
+	public int size() {
+		return tree.length;
+	}
+
+	/**
+	 * Number of links between the given object and its root. Unlike find, it does not compress the path
+	 * @return
+	 */
+	int depth(int element) {
+		
+		int depth = 0;
+		int currentElement = element;
+		while(tree[currentElement] != 0) {
+			currentElement += tree[currentElement];
+			depth++;
+		}
+		
+		return depth;
+	}
+	
+	@Override
+	public int[] parents() {
+		return getTree();
+	}
+
 	/**
      * This method should be used only for testing  
-     * @return the array containing the parent of each node
+     * @return a copy of the array containing the parent of each node
      */
     protected int[] getTree() {
-        return tree;
+        return ImplicitArrays.decodeParents(tree);
     }
     
     /**
      * This method should be used only for testing  
-     * @return the array containing the size of each tree
+     * @return a copy of the array containing the size of each tree
      */
     protected int[] getTreesSize() {
-        return treesSize;
+        return ImplicitArrays.decodeSizes(treesSize);
     }
 }
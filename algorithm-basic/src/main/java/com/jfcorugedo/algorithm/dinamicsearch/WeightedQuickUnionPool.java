@@ -0,0 +1,82 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.ArrayDeque;
+
+/**
+ * <p>
+ * Pool of {@link ReusableWeightedQuickUnion} instances of the same size, for workloads that solve
+ * many short-lived problems (one per request, one per Monte Carlo trial...).
+ * </p>
+ * <pre>
+ * ReusableWeightedQuickUnion algorithm = pool.acquire();
+ * try {
+ *     ...
+ * } finally {
+ *     pool.release(algorithm);
+ * }
+ * </pre>
+ *
+ * <p>
+ * Each thread has its own list of free instances, so acquiring and releasing never need any
+ * synchronization. Released instances are reset in constant time, and once each thread has
+ * created the instances it needs at the same time, the pool does not allocate memory anymore.
+ * </p>
+ *
+ * <p>
+ * An instance may be released by a thread different from the one that acquired it:
+ * it will be reused by the releasing thread.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class WeightedQuickUnionPool {
+
+	private final int size;
+
+	private final int maxIdlePerThread;
+
+	private final ThreadLocal<ArrayDeque<ReusableWeightedQuickUnion>> idle;
+
+	/**
+	 * @param size number of objects of each instance
+	 * @param maxIdlePerThread max number of free instances kept by each thread, the rest are discarded
+	 */
+	public WeightedQuickUnionPool(int size, int maxIdlePerThread) {
+
+		if(maxIdlePerThread < 1) {
+			throw new IllegalArgumentException("At least one idle instance per thread must be kept: " + maxIdlePerThread);
+		}
+		this.size = size;
+		this.maxIdlePerThread = maxIdlePerThread;
+		this.idle = ThreadLocal.withInitial(() -> new ArrayDeque<>(maxIdlePerThread));
+	}
+
+	/**
+	 * @return an instance where all the objects are disconnected
+	 */
+	public ReusableWeightedQuickUnion acquire() {
+
+		ReusableWeightedQuickUnion algorithm = idle.get().pollFirst();
+		return algorithm != null ? algorithm : new ReusableWeightedQuickUnion(size);
+	}
+
+	/**
+	 * Resets the instance and keeps it for the next acquire of this thread.
+	 * The instance must not be used after releasing it.
+	 *
+	 * @throws IllegalArgumentException if the instance has not the size of this pool
+	 */
+	public void release(ReusableWeightedQuickUnion algorithm) {
+
+		if(algorithm.size() != size) {
+			throw new IllegalArgumentException("This pool only keeps instances of size " + size + ": " + algorithm.size());
+		}
+
+		ArrayDeque<ReusableWeightedQuickUnion> free = idle.get();
+		if(free.size() < maxIdlePerThread) {
+			algorithm.reset();
+			free.addFirst(algorithm);
+		}
+	}
+}
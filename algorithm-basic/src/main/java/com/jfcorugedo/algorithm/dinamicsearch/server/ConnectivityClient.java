@@ -0,0 +1,151 @@
+package com.jfcorugedo.algorithm.dinamicsearch.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Client of a {@link ConnectivityServer}.
+ * </p>
+ *
+ * <p>
+ * Requests can be sent one by one, using {@link #union(int, int)} and {@link #isConnected(int, int)},
+ * or pipelined: {@link #sendUnion(int, int)} and {@link #sendIsConnected(int, int)} only buffer the
+ * request and {@link #sync()} sends everything in a single round trip and returns the answers
+ * in the same order the requests were sent.
+ * </p>
+ * <pre>
+ * client.sendUnion(1, 2);
+ * client.sendUnion(2, 3);
+ * client.sendIsConnected(1, 3);
+ * boolean[] answers = client.sync(); // [true, true, true]
+ * </pre>
+ *
+ * <p>
+ * This class is not thread safe: use one client per thread.
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class ConnectivityClient implements Closeable {
+
+	/**
+	 * Max number of requests without answer. Once reached the client reads the answers already
+	 * sent by the server, so neither side can block writing into a full socket buffer.
+	 */
+	static final int MAX_IN_FLIGHT = 16 * 1024;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Socket socket;
+
+	private final DataOutputStream out;
+
+	private final DataInputStream in;
+
+	/** Answers received since the last call to sync */
+	private byte[] answers = new byte[1024];
+
+	private int sent;
+
+	private int received;
+
+	public ConnectivityClient(String host, int port) throws IOException {
+
+		this.socket = new Socket(host, port);
+		this.socket.setTcpNoDelay(true);
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+	}
+
+	/**
+	 * Connects p and q and waits for the server to apply it
+	 */
+	public void union(int p, int q) throws IOException {
+
+		sendUnion(p, q);
+		sync();
+	}
+
+	/**
+	 * Asks the server if p and q are connected and waits for the answer
+	 */
+	public boolean isConnected(int p, int q) throws IOException {
+
+		sendIsConnected(p, q);
+		boolean[] result = sync();
+		return result[result.length - 1];
+	}
+
+	/**
+	 * Buffers a union request. It will be sent, at the latest, on the next call to {@link #sync()}
+	 */
+	public void sendUnion(int p, int q) throws IOException {
+		send(ConnectivityProtocol.UNION, p, q);
+	}
+
+	/**
+	 * Buffers an isConnected request. Its answer will be returned by the next call to {@link #sync()}
+	 */
+	public void sendIsConnected(int p, int q) throws IOException {
+		send(ConnectivityProtocol.IS_CONNECTED, p, q);
+	}
+
+	/**
+	 * Sends all the buffered requests and waits for all the answers
+	 *
+	 * @return one element per request sent since the last call: true for every union and the
+	 * result of every isConnected
+	 * @throws IOException If the connection fails or the server could not apply some request
+	 */
+	public boolean[] sync() throws IOException {
+
+		out.flush();
+		receive(sent - received);
+
+		boolean[] result = new boolean[sent];
+		for(int i = 0 ; i < sent ; i++) {
+			if(answers[i] == ConnectivityProtocol.ERROR) {
+				sent = received = 0;
+				throw new IOException("Request number " + i + " could not be applied by the server");
+			}
+			result[i] = answers[i] == ConnectivityProtocol.TRUE;
+		}
+		sent = received = 0;
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	private void send(byte opcode, int p, int q) throws IOException {
+
+		if(sent - received >= MAX_IN_FLIGHT) {
+			out.flush();
+			receive(sent - received);
+		}
+
+		out.writeByte(opcode);
+		out.writeInt(p);
+		out.writeInt(q);
+		sent++;
+	}
+
+	private void receive(int count) throws IOException {
+
+		if(received + count > answers.length) {
+			answers = Arrays.copyOf(answers, Math.max(answers.length * 2, received + count));
+		}
+		in.readFully(answers, received, count);
+		received += count;
+	}
+}
@@ -0,0 +1,51 @@
+package com.jfcorugedo.algorithm.dinamicsearch.server;
+
+/**
+ * <p>
+ * Binary wire format shared by {@link ConnectivityServer} and {@link ConnectivityClient}.
+ * </p>
+ *
+ * <p>
+ * Every request is a fixed size frame of nine bytes: one opcode byte followed by the two
+ * objects p and q as big endian ints.
+ * </p>
+ * <pre>
+ * +--------+------------+------------+
+ * | opcode |   p (int)  |   q (int)  |
+ * +--------+------------+------------+
+ * </pre>
+ * <p>
+ * Every request is answered with exactly one byte, in the same order the requests were sent:
+ * {@link #TRUE} or {@link #FALSE} for {@link #IS_CONNECTED}, {@link #ACK} for {@link #UNION}
+ * and {@link #ERROR} when the request cannot be applied.
+ * Because answers keep the order of the requests, a client can write many frames before
+ * reading any answer (pipelining).
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public final class ConnectivityProtocol {
+
+	/** Connects p and q */
+	public static final byte UNION = 1;
+
+	/** Asks whether p and q are connected */
+	public static final byte IS_CONNECTED = 2;
+
+	/** Size in bytes of a request frame */
+	public static final int FRAME_SIZE = 9;
+
+	public static final byte FALSE = 0;
+
+	public static final byte TRUE = 1;
+
+	public static final byte ACK = TRUE;
+
+	/** The request could not be applied, because its opcode is unknown or p or q are out of range */
+	public static final byte ERROR = 2;
+
+	private ConnectivityProtocol() {
+		//Only constants
+	}
+}
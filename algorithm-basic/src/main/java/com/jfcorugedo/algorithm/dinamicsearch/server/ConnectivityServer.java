@@ -0,0 +1,271 @@
+package com.jfcorugedo.algorithm.dinamicsearch.server;
+
+import static com.jfcorugedo.algorithm.dinamicsearch.server.ConnectivityProtocol.FRAME_SIZE;
+import static com.jfcorugedo.algorithm.dinamicsearch.server.ConnectivityProtocol.IS_CONNECTED;
+import static com.jfcorugedo.algorithm.dinamicsearch.server.ConnectivityProtocol.UNION;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import com.jfcorugedo.algorithm.dinamicsearch.DynamicConnectivity;
+
+/**
+ * <p>
+ * Shares one {@link DynamicConnectivity} between several processes using the binary protocol
+ * described in {@link ConnectivityProtocol}.
+ * </p>
+ *
+ * <p>
+ * Each connection is served by its own virtual thread. That thread
+ * reads every request the client has already pipelined into a batch, hands the batch to a single
+ * writer thread and waits for the answers.
+ * </p>
+ *
+ * <p>
+ * The writer thread is the only one that touches the underlying structure, so none of the
+ * implementations of this package need to be thread safe to be served. Every time it wakes up
+ * it drains all the batches queued by all the connections and applies them one after the other,
+ * so the cost of the hand-off is paid once per batch and not once per request.
+ * </p>
+ *
+ * <pre>
+ * try(ConnectivityServer server = new ConnectivityServer(new WeightedQuickUnionPathCompression(n), 7070).start()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see ConnectivityClient
+ * @author jfcorugedo
+ *
+ */
+public class ConnectivityServer implements Closeable {
+
+	/** Max number of requests read from a connection before handing them to the writer */
+	static final int MAX_BATCH_SIZE = 4096;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final DynamicConnectivity connectivity;
+
+	private final ServerSocket serverSocket;
+
+	private final ExecutorService connections;
+
+	/** Batches waiting to be applied by the writer thread */
+	private final BlockingQueue<Batch> pending = new LinkedBlockingQueue<>();
+
+	private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+	private final Thread writer;
+
+	private final Thread acceptor;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Creates a server that will serve each connection in its own virtual thread
+	 *
+	 * @param connectivity Structure shared by all the clients
+	 * @param port Port to listen on, 0 to use any free port
+	 * @throws IOException If the port cannot be opened
+	 */
+	public ConnectivityServer(DynamicConnectivity connectivity, int port) throws IOException {
+		this(connectivity, port, Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	/**
+	 * Creates a server that will serve each connection using the given executor
+	 *
+	 * @param connectivity Structure shared by all the clients
+	 * @param port Port to listen on, 0 to use any free port
+	 * @param connections Executor that will run one task per connection
+	 * @throws IOException If the port cannot be opened
+	 */
+	public ConnectivityServer(DynamicConnectivity connectivity, int port, ExecutorService connections) throws IOException {
+
+		this.connectivity = connectivity;
+		this.connections = connections;
+		this.serverSocket = new ServerSocket(port);
+		this.writer = new Thread(this::applyBatches, "connectivity-writer");
+		this.acceptor = new Thread(this::acceptConnections, "connectivity-acceptor");
+	}
+
+	/**
+	 * Starts accepting connections
+	 * @return this server
+	 */
+	public ConnectivityServer start() {
+
+		writer.start();
+		acceptor.start();
+		return this;
+	}
+
+	/**
+	 * @return the port this server is listening on
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		running = false;
+		serverSocket.close();
+		for(Socket socket : openSockets) {
+			socket.close();
+		}
+		writer.interrupt();
+		connections.shutdownNow();
+	}
+
+	private void acceptConnections() {
+
+		while(running) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				openSockets.add(socket);
+				connections.execute(() -> serve(socket));
+			} catch(IOException e) {
+				//The server socket has been closed, or the client left before being accepted
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+
+		Batch batch = new Batch();
+		try(Socket s = socket;
+			DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), BUFFER_SIZE));
+			OutputStream out = new BufferedOutputStream(s.getOutputStream(), BUFFER_SIZE)) {
+
+			while(running && batch.read(in)) {
+				pending.put(batch);
+				batch.applied.acquire();
+				out.write(batch.results, 0, batch.size);
+				out.flush();
+			}
+		} catch(IOException e) {
+			//The client has closed the connection or has left a request unfinished
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			openSockets.remove(socket);
+		}
+	}
+
+	/**
+	 * Single writer loop: the only place where the shared structure is read or modified
+	 */
+	private void applyBatches() {
+
+		List<Batch> drained = new ArrayList<>();
+		try {
+			while(running) {
+				drained.add(pending.take());
+				pending.drainTo(drained);
+				for(Batch batch : drained) {
+					batch.applyTo(connectivity);
+					batch.applied.release();
+				}
+				drained.clear();
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Requests pipelined by one connection. Each connection reuses its own batch,
+	 * so serving requests does not allocate memory.
+	 */
+	static class Batch {
+
+		final byte[] opcodes = new byte[MAX_BATCH_SIZE];
+
+		final int[] ps = new int[MAX_BATCH_SIZE];
+
+		final int[] qs = new int[MAX_BATCH_SIZE];
+
+		final byte[] results = new byte[MAX_BATCH_SIZE];
+
+		/** Released by the writer once the batch has been applied */
+		final Semaphore applied = new Semaphore(0);
+
+		int size;
+
+		/**
+		 * Blocks until one request is available and then reads all the requests already
+		 * received without blocking again
+		 *
+		 * @return false if the client has closed the connection
+		 */
+		boolean read(DataInputStream in) throws IOException {
+
+			int opcode = in.read();
+			if(opcode < 0) {
+				return false;
+			}
+
+			size = 0;
+			add(opcode, in.readInt(), in.readInt());
+			while(size < MAX_BATCH_SIZE && in.available() >= FRAME_SIZE) {
+				add(in.readByte(), in.readInt(), in.readInt());
+			}
+			return true;
+		}
+
+		/**
+		 * Unknown opcodes are kept too: frames have a fixed size, so the next request can still be read,
+		 * and the writer answers this one with {@link ConnectivityProtocol#ERROR}
+		 */
+		private void add(int opcode, int p, int q) {
+
+			opcodes[size] = (byte) opcode;
+			ps[size] = p;
+			qs[size] = q;
+			size++;
+		}
+
+		void applyTo(DynamicConnectivity connectivity) {
+
+			for(int i = 0 ; i < size ; i++) {
+				results[i] = apply(connectivity, opcodes[i], ps[i], qs[i]);
+			}
+		}
+
+		private static byte apply(DynamicConnectivity connectivity, byte opcode, int p, int q) {
+
+			try {
+				if(opcode == UNION) {
+					connectivity.union(p, q);
+					return ConnectivityProtocol.ACK;
+				}
+				if(opcode == IS_CONNECTED) {
+					return connectivity.isConnected(p, q) ? ConnectivityProtocol.TRUE : ConnectivityProtocol.FALSE;
+				}
+				return ConnectivityProtocol.ERROR;
+			} catch(IndexOutOfBoundsException e) {
+				//p or q are not objects of this structure
+				return ConnectivityProtocol.ERROR;
+			}
+		}
+	}
+}
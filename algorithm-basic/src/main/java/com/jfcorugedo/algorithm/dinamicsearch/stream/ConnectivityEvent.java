@@ -0,0 +1,57 @@
+package com.jfcorugedo.algorithm.dinamicsearch.stream;
+
+/**
+ * Result of applying one {@link Edge} to a dynamic connectivity structure
+ *
+ * @author jfcorugedo
+ *
+ */
+public final class ConnectivityEvent {
+
+	public enum Type {
+		/** The edge connected two different components */
+		MERGE,
+		/** Both objects were already connected, so the edge did not change anything */
+		REDUNDANT
+	}
+
+	private final Type type;
+
+	private final Edge edge;
+
+	public ConnectivityEvent(Type type, Edge edge) {
+		this.type = type;
+		this.edge = edge;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Edge getEdge() {
+		return edge;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		if(this == other) {
+			return true;
+		}
+		if(!(other instanceof ConnectivityEvent)) {
+			return false;
+		}
+		ConnectivityEvent event = (ConnectivityEvent) other;
+		return type == event.type && edge.equals(event.edge);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + edge.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return type + "(" + edge + ")";
+	}
+}
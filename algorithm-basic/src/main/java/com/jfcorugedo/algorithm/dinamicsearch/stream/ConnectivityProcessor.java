@@ -0,0 +1,134 @@
+package com.jfcorugedo.algorithm.dinamicsearch.stream;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+import com.jfcorugedo.algorithm.dinamicsearch.DynamicConnectivity;
+
+/**
+ * <p>
+ * Pipeline stage that applies a stream of {@link Edge} to a {@link DynamicConnectivity}
+ * and publishes one {@link ConnectivityEvent} per edge: {@link ConnectivityEvent.Type#MERGE}
+ * if the edge connected two components and {@link ConnectivityEvent.Type#REDUNDANT} if its
+ * objects were already connected.
+ * </p>
+ *
+ * <p>
+ * Edges are requested in micro-batches: this stage never asks its source for more than
+ * <code>batchSize</code> edges, and it only requests the next batch once every edge of the
+ * current one has been applied. So a fast source is slowed down to the pace of the structure
+ * (backpressure), and the cost of a request is paid once per batch. Each edge is applied as soon
+ * as it arrives, so a live source that pauses with less than a whole batch does not delay its edges.
+ * </p>
+ *
+ * <p>
+ * Events are published through a {@link SubmissionPublisher}. If any downstream subscriber
+ * falls behind, publishing blocks, the next batch is not requested and the backpressure
+ * reaches the source.
+ * </p>
+ *
+ * <p>
+ * Flow guarantees that the methods of a subscriber are never called concurrently, so the
+ * structure is only touched by one thread at a time and no lock is needed, no matter how many
+ * threads are producing edges upstream (for instance submitting them to a thread safe
+ * {@link SubmissionPublisher}).
+ * </p>
+ *
+ * @author jfcorugedo
+ *
+ */
+public class ConnectivityProcessor implements Flow.Processor<Edge, ConnectivityEvent> {
+
+	private final DynamicConnectivity connectivity;
+
+	private final int batchSize;
+
+	private final SubmissionPublisher<ConnectivityEvent> events;
+
+	private Flow.Subscription subscription;
+
+	/** Edges of the current batch that have not arrived yet */
+	private int outstanding;
+
+	/**
+	 * Creates a stage that delivers its events using the common pool
+	 *
+	 * @param connectivity Structure where edges will be applied
+	 * @param batchSize Max number of edges requested to the source at once
+	 */
+	public ConnectivityProcessor(DynamicConnectivity connectivity, int batchSize) {
+		this(connectivity, batchSize, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+	}
+
+	/**
+	 * @param connectivity Structure where edges will be applied
+	 * @param batchSize Max number of edges requested to the source at once
+	 * @param executor Executor used to deliver events to downstream subscribers
+	 * @param maxBufferedEvents Max number of events buffered for each downstream subscriber
+	 */
+	public ConnectivityProcessor(DynamicConnectivity connectivity, int batchSize, Executor executor, int maxBufferedEvents) {
+
+		if(batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.connectivity = connectivity;
+		this.batchSize = batchSize;
+		this.events = new SubmissionPublisher<>(executor, maxBufferedEvents);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super ConnectivityEvent> subscriber) {
+		events.subscribe(subscriber);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+
+		if(this.subscription != null) {
+			//Only one source is allowed
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		requestBatch();
+	}
+
+	@Override
+	public void onNext(Edge edge) {
+
+		try {
+			events.submit(new ConnectivityEvent(apply(edge), edge));
+		} catch(RuntimeException e) {
+			subscription.cancel();
+			events.closeExceptionally(e);
+			return;
+		}
+		outstanding--;
+		if(outstanding == 0) {
+			requestBatch();
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		events.closeExceptionally(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		events.close();
+	}
+
+	private void requestBatch() {
+
+		outstanding = batchSize;
+		subscription.request(batchSize);
+	}
+
+	private ConnectivityEvent.Type apply(Edge edge) {
+
+		return connectivity.tryUnion(edge.getP(), edge.getQ()) ? ConnectivityEvent.Type.MERGE : ConnectivityEvent.Type.REDUNDANT;
+	}
+}
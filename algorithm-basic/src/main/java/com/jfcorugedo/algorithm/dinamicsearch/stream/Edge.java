@@ -0,0 +1,50 @@
+package com.jfcorugedo.algorithm.dinamicsearch.stream;
+
+/**
+ * A pair p q meaning that object p is connected to object q
+ *
+ * @author jfcorugedo
+ *
+ */
+public final class Edge {
+
+	private final int p;
+
+	private final int q;
+
+	public Edge(int p, int q) {
+		this.p = p;
+		this.q = q;
+	}
+
+	public int getP() {
+		return p;
+	}
+
+	public int getQ() {
+		return q;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		if(this == other) {
+			return true;
+		}
+		if(!(other instanceof Edge)) {
+			return false;
+		}
+		Edge edge = (Edge) other;
+		return p == edge.p && q == edge.q;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * p + q;
+	}
+
+	@Override
+	public String toString() {
+		return p + "-" + q;
+	}
+}
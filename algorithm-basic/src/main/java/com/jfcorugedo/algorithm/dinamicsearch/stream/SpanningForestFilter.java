@@ -0,0 +1,134 @@
+package com.jfcorugedo.algorithm.dinamicsearch.stream;
+
+import com.jfcorugedo.algorithm.dinamicsearch.DynamicConnectivity;
+
+/**
+ * <p>
+ * Filter for streams of edges that keeps only the edges of a spanning forest: the ones that connect
+ * two components for the first time. The rest of the edges are redundant (each of them closes a cycle
+ * with the edges already kept), so the kept edges connect exactly the same objects.
+ * </p>
+ *
+ * <p>
+ * Each edge costs one {@link DynamicConnectivity#tryUnion(int, int)}, and edges are handled as pairs of
+ * ints: nothing is allocated per edge, so it can shrink huge graphs before an expensive processing.
+ * Edges can be passed one by one, with their outcome delivered to an {@link EdgeConsumer}, or in blocks
+ * that are compacted in place:
+ * </p>
+ * <pre>
+ * ps=[0, 1, 0, 3]  qs=[1, 2, 2, 4]
+ * filter(ps, qs, 4) = 3
+ * ps=[0, 1, 3, 3]  qs=[1, 2, 4, 4]   (0-2 closed the cycle 0-1-2)
+ * </pre>
+ *
+ * <p>
+ * Like the structures of this package, it is not thread safe.
+ * </p>
+ *
+ * @see ConnectivityProcessor
+ * @author jfcorugedo
+ *
+ */
+public class SpanningForestFilter {
+
+	/**
+	 * Receives edges as two ints, so no object is created per edge
+	 */
+	@FunctionalInterface
+	public interface EdgeConsumer {
+
+		/** Consumer that ignores the edges */
+		EdgeConsumer NONE = (p, q) -> { };
+
+		void accept(int p, int q);
+	}
+
+	private final DynamicConnectivity connectivity;
+
+	private final EdgeConsumer forestEdges;
+
+	private final EdgeConsumer cycleEdges;
+
+	private long forestEdgesCount;
+
+	private long redundantEdgesCount;
+
+	/**
+	 * Creates a filter that does not report the edges, only filters blocks of them
+	 *
+	 * @param connectivity Structure that keeps the components of the edges accepted so far
+	 */
+	public SpanningForestFilter(DynamicConnectivity connectivity) {
+		this(connectivity, EdgeConsumer.NONE, EdgeConsumer.NONE);
+	}
+
+	/**
+	 * @param connectivity Structure that keeps the components of the edges accepted so far
+	 * @param forestEdges Receives the edges of the spanning forest
+	 * @param cycleEdges Receives the redundant edges, each of them closes a cycle
+	 */
+	public SpanningForestFilter(DynamicConnectivity connectivity, EdgeConsumer forestEdges, EdgeConsumer cycleEdges) {
+
+		this.connectivity = connectivity;
+		this.forestEdges = forestEdges;
+		this.cycleEdges = cycleEdges;
+	}
+
+	/**
+	 * Handles one edge, delivering it to the consumer of forest edges or to the one of cycle edges
+	 *
+	 * @return true if the edge belongs to the spanning forest
+	 */
+	public boolean accept(int p, int q) {
+
+		if(connectivity.tryUnion(p, q)) {
+			forestEdgesCount++;
+			forestEdges.accept(p, q);
+			return true;
+		}
+		redundantEdgesCount++;
+		cycleEdges.accept(p, q);
+		return false;
+	}
+
+	/**
+	 * Handles a block of edges, moving the forest edges to the beginning of the arrays (keeping their order)
+	 *
+	 * @param ps first object of each edge
+	 * @param qs second object of each edge
+	 * @param length number of edges of the block
+	 * @return number of forest edges, now stored in the first positions of ps and qs
+	 */
+	public int filter(int[] ps, int[] qs, int length) {
+
+		if(length > ps.length || length > qs.length) {
+			throw new IllegalArgumentException("The block has only " + Math.min(ps.length, qs.length) + " edges: " + length);
+		}
+
+		int kept = 0;
+		for(int i = 0 ; i < length ; i++) {
+			int p = ps[i];
+			int q = qs[i];
+			if(accept(p, q)) {
+				ps[kept] = p;
+				qs[kept] = q;
+				kept++;
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * @return number of edges of the spanning forest found so far
+	 */
+	public long getForestEdges() {
+		return forestEdgesCount;
+	}
+
+	/**
+	 * @return number of redundant edges found so far
+	 */
+	public long getRedundantEdges() {
+		return redundantEdgesCount;
+	}
+}
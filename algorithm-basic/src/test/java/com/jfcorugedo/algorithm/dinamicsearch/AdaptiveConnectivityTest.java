@@ -0,0 +1,114 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jfcorugedo.algorithm.dinamicsearch.AdaptiveConnectivity.Representation;
+
+public class AdaptiveConnectivityTest {
+
+	@Test
+	public void smallReadHeavySetsStartWithQuickFind() {
+
+		AdaptiveConnectivity algorithm = new AdaptiveConnectivity(10, 0.99);
+
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.QUICK_FIND);
+	}
+
+	@Test
+	public void largeSetsStartWithWeightedQuickUnion() {
+
+		AdaptiveConnectivity algorithm = new AdaptiveConnectivity(100000, 0.99);
+
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.WEIGHTED_PATH_COMPRESSION);
+	}
+
+	@Test
+	public void burstsOfUnionsMigrateToWeightedQuickUnion() {
+
+		AdaptiveConnectivity algorithm = new AdaptiveConnectivity(1000, 1);
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.QUICK_FIND);
+
+		for(int i = 2 ; i < 2 + 2 * AdaptiveConnectivity.UNFREEZE_FACTOR ; i += 2) {
+			algorithm.union(i, i + 1);
+		}
+		algorithm.union(2, 4);
+		algorithm.union(3, 1);
+
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.WEIGHTED_PATH_COMPRESSION);
+		assertThat(algorithm.isConnected(1, 5)).isTrue();
+		assertThat(algorithm.isConnected(1, 6)).isFalse();
+	}
+
+	@Test
+	public void readOnlyPhasesFreezeTheStructure() {
+
+		AdaptiveConnectivity algorithm = new AdaptiveConnectivity(1000, 0);
+		for(int i = 1 ; i < 500 ; i++) {
+			algorithm.union(i - 1, i);
+		}
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.WEIGHTED_PATH_COMPRESSION);
+
+		for(int i = 0 ; i < 3000 ; i++) {
+			algorithm.isConnected(i % 1000, 0);
+		}
+
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.QUICK_FIND);
+		assertThat(algorithm.isConnected(0, 499)).isTrue();
+		assertThat(algorithm.isConnected(0, 500)).isFalse();
+	}
+
+	@Test
+	public void aFewUnionsDoNotUnfreezeTheStructure() {
+
+		AdaptiveConnectivity algorithm = new AdaptiveConnectivity(1000, 1);
+
+		algorithm.union(1, 2);
+		algorithm.union(3, 4);
+		algorithm.union(2, 4);
+
+		assertThat(algorithm.getRepresentation()).isEqualTo(Representation.QUICK_FIND);
+		assertThat(algorithm.getMigrations()).isEqualTo(0);
+		assertThat(algorithm.isConnected(1, 3)).isTrue();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void readRatioMustBeAFraction() {
+
+		new AdaptiveConnectivity(10, Double.NaN);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sizeCanNotBeNegative() {
+
+		new AdaptiveConnectivity(-1, 0.5);
+	}
+
+	@Test
+	public void answersDoNotChangeWhileMigrating() {
+
+		int size = 200;
+		Random random = new Random(7);
+		AdaptiveConnectivity algorithm = new AdaptiveConnectivity(size, 0.99);
+		WeightedQuickUnion expected = new WeightedQuickUnion(size);
+
+		for(int phase = 0 ; phase < 10 ; phase++) {
+			double unionRatio = phase % 2 == 0 ? 0.5 : 0;
+			for(int i = 0 ; i < 5000 ; i++) {
+				int p = random.nextInt(size);
+				int q = random.nextInt(size);
+				if(random.nextDouble() < unionRatio) {
+					algorithm.union(p, q);
+					expected.union(p, q);
+				} else {
+					assertThat(algorithm.isConnected(p, q)).isEqualTo(expected.isConnected(p, q));
+				}
+			}
+		}
+
+		assertThat(algorithm.getMigrations()).isGreaterThan(0);
+	}
+}
@@ -0,0 +1,114 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * JMH benchmark of the cost that {@link BackgroundCompactor} adds to each command, compared with executing
+ * the same commands directly on the wrapped {@link WeightedQuickUnionPathCompression}.
+ * </p>
+ *
+ * <p>
+ * Each invocation executes {@value #COMMANDS} random commands (a tenth of them unions) over a new structure,
+ * and the score is the time per command. The idle period of the compactor is longer than an iteration, so the
+ * difference is only the cost of going through it, not the effect of the compaction.
+ * </p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main BackgroundCompactorBenchmark
+ * </pre>
+ *
+ * @see BackgroundCompactor
+ * @author jfcorugedo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackgroundCompactorBenchmark {
+
+	/** Commands executed by each invocation */
+	static final int COMMANDS = 1 << 16;
+
+	@Param("1000000")
+	public int size;
+
+	private WeightedQuickUnionPathCompression structure;
+
+	private BackgroundCompactor compactor;
+
+	private int[] ps;
+
+	private int[] qs;
+
+	@Setup(Level.Trial)
+	public void commands() {
+
+		SplittableRandom random = new SplittableRandom(42);
+		ps = new int[COMMANDS];
+		qs = new int[COMMANDS];
+		for(int i = 0 ; i < COMMANDS ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+		}
+	}
+
+	/**
+	 * Unions would connect every object after a few invocations, so each one starts with a new structure
+	 */
+	@Setup(Level.Invocation)
+	public void create() {
+
+		structure = new WeightedQuickUnionPathCompression(size);
+		compactor = new BackgroundCompactor(new WeightedQuickUnionPathCompression(size), 60_000);
+	}
+
+	@TearDown(Level.Invocation)
+	public void close() {
+		compactor.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMMANDS)
+	public int direct() {
+		return run(structure);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COMMANDS)
+	public int compacted() {
+		return run(compactor);
+	}
+
+	private int run(DynamicConnectivity connectivity) {
+
+		int connected = 0;
+		for(int i = 0 ; i < COMMANDS ; i++) {
+			if(i % 10 == 0) {
+				connectivity.union(ps[i], qs[i]);
+			} else {
+				connected += connectivity.isConnected(ps[i], qs[i]) ? 1 : 0;
+			}
+		}
+		return connected;
+	}
+}
@@ -0,0 +1,180 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class BackgroundCompactorTest {
+
+	/**
+	 * Long idle period, so the background thread never compacts during the test
+	 */
+	private static final long NEVER_IDLE = 60_000;
+
+	private static int[] chain(QuickUnion algorithm, int size) {
+
+		for(int i = 1 ; i < size ; i++) {
+			algorithm.union(i - 1, i);
+		}
+		return algorithm.getTree();
+	}
+
+	private static void assertFlat(int[] tree) {
+
+		for(int element = 0 ; element < tree.length ; element++) {
+			assertThat(tree[tree[element]]).isEqualTo(tree[element]);
+		}
+	}
+
+	@Test
+	public void compactNowLinksEveryObjectToItsRoot() {
+
+		QuickUnion algorithm = new QuickUnion(10);
+		chain(algorithm, 10);
+
+		try(BackgroundCompactor compactor = new BackgroundCompactor(algorithm, NEVER_IDLE)) {
+			//The root already was the parent of 8
+			assertThat(compactor.compactNow()).isEqualTo(8);
+			assertThat(compactor.compactNow()).isEqualTo(0);
+			assertThat(compactor.isConnected(0, 9)).isTrue();
+		}
+		assertThat(algorithm.getTree()).containsOnly(9);
+	}
+
+	@Test
+	public void compactionKeepsComponentsAndSizes() {
+
+		Random random = new Random(13);
+		WeightedQuickUnion weighted = new WeightedQuickUnion(500);
+		WeightedQuickUnion expected = new WeightedQuickUnion(500);
+		for(int i = 0 ; i < 400 ; i++) {
+			int p = random.nextInt(500);
+			int q = random.nextInt(500);
+			weighted.union(p, q);
+			expected.union(p, q);
+		}
+
+		try(BackgroundCompactor compactor = new BackgroundCompactor(weighted, NEVER_IDLE)) {
+			compactor.compactNow();
+			for(int element = 0 ; element < 500 ; element++) {
+				assertThat(compactor.find(element)).isEqualTo(expected.find(element));
+			}
+		}
+		assertFlat(weighted.getTree());
+		assertThat(weighted.getTreesSize()).containsExactly(expected.getTreesSize());
+	}
+
+	@Test
+	public void everyTreeBasedStructureCanBeCompacted() {
+
+		DynamicConnectivity[] structures = {
+				new QuickUnionPathCompression(100),
+				new WeightedQuickUnionPathCompression(100)};
+		for(DynamicConnectivity structure : structures) {
+			for(int i = 1 ; i < 100 ; i++) {
+				structure.union(i, i - 1);
+			}
+			try(BackgroundCompactor compactor = new BackgroundCompactor(structure, NEVER_IDLE)) {
+				compactor.compactNow();
+			}
+			assertFlat(TraceReplay.parentsOf(structure));
+		}
+	}
+
+	@Test
+	public void idleStructuresAreCompactedInTheBackground() throws InterruptedException {
+
+		int size = 3 * BackgroundCompactor.CHUNK + 1;
+		QuickUnion algorithm = new QuickUnion(size);
+		chain(algorithm, size);
+
+		try(BackgroundCompactor compactor = new BackgroundCompactor(algorithm, 5)) {
+			long deadline = System.currentTimeMillis() + 10_000;
+			while(compactor.getPasses() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(compactor.getPasses()).isEqualTo(1);
+			//Paths longer than a step are linked to the farthest ancestor reached first, and to the root later
+			assertThat(compactor.getCompactedLinks()).isGreaterThanOrEqualTo(size - 2);
+		}
+		assertFlat(algorithm.getTree());
+	}
+
+	@Test
+	public void commandsCanRunWhileCompacting() throws InterruptedException {
+
+		int size = 20_000;
+		WeightedQuickUnion algorithm = new WeightedQuickUnion(size);
+		WeightedQuickUnion expected = new WeightedQuickUnion(size);
+
+		try(BackgroundCompactor compactor = new BackgroundCompactor(algorithm, 1)) {
+			Random random = new Random(17);
+			for(int burst = 0 ; burst < 20 ; burst++) {
+				for(int i = 0 ; i < 500 ; i++) {
+					int p = random.nextInt(size);
+					int q = random.nextInt(size);
+					compactor.union(p, q);
+					expected.union(p, q);
+				}
+				Thread.sleep(3);
+				for(int i = 0 ; i < 500 ; i++) {
+					int p = random.nextInt(size);
+					int q = random.nextInt(size);
+					assertThat(compactor.isConnected(p, q)).isEqualTo(expected.isConnected(p, q));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Steps run in another thread while finds compress the same paths, with no pause between them,
+	 * so compaction writes land between the reads and writes of the finds
+	 */
+	@Test
+	public void findsDuringAPassAlwaysReachTheRoot() throws Exception {
+
+		int size = 200_000;
+		Random random = new Random(19);
+		for(int round = 0 ; round < 200 ; round++) {
+			QuickUnionPathCompression algorithm = new QuickUnionPathCompression(size);
+			for(int i = 1 ; i < size ; i++) {
+				algorithm.union(i - 1, i);
+			}
+
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			CountDownLatch start = new CountDownLatch(1);
+			Thread background = new Thread(() -> {
+				try {
+					start.await();
+					Compaction compaction = new Compaction(64);
+					while(!compaction.isFinished()) {
+						algorithm.compact(compaction);
+					}
+				} catch(Throwable e) {
+					failure.set(e);
+				}
+			});
+			background.start();
+			start.countDown();
+			while(background.isAlive()) {
+				assertThat(algorithm.find(random.nextInt(size))).isEqualTo(size - 1);
+			}
+			background.join();
+
+			assertThat(failure.get()).isNull();
+			for(int element = 0 ; element < size ; element += 97) {
+				assertThat(algorithm.find(element)).isEqualTo(size - 1);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void quickFindCanNotBeCompacted() {
+
+		new BackgroundCompactor(new QuickFind(10), NEVER_IDLE);
+	}
+}
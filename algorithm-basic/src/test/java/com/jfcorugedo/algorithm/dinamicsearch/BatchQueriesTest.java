@@ -0,0 +1,69 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BatchQueriesTest {
+
+	private static void assertBatchMatchesSingleQueries(DynamicConnectivity algorithm, int size, int unions, int queries) {
+
+		Random random = new Random(19);
+		for(int i = 0 ; i < unions ; i++) {
+			algorithm.union(random.nextInt(size), random.nextInt(size));
+		}
+		int[] ps = new int[queries];
+		int[] qs = new int[queries];
+		for(int i = 0 ; i < queries ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+		}
+
+		boolean[] out = new boolean[queries];
+		algorithm.isConnectedAll(ps, qs, out);
+
+		for(int i = 0 ; i < queries ; i++) {
+			assertThat(out[i]).as("query %d of %s", i, algorithm.getClass().getSimpleName())
+				.isEqualTo(algorithm.isConnected(ps[i], qs[i]));
+		}
+	}
+
+	@Test
+	public void batchesOfEveryImplementationMatchSingleQueries() {
+
+		for(String name : TraceReplay.IMPLEMENTATIONS.keySet()) {
+			assertBatchMatchesSingleQueries(TraceReplay.IMPLEMENTATIONS.get(name).apply(300), 300, 200, 1000);
+		}
+	}
+
+	@Test
+	public void largeBatchesAreAnsweredInParallel() {
+
+		assertBatchMatchesSingleQueries(new WeightedQuickUnion(100_000), 100_000, 80_000, 5 * BatchQueries.PARALLEL_THRESHOLD + 7);
+		assertBatchMatchesSingleQueries(new QuickUnion(2_000), 2_000, 1_500, 3 * BatchQueries.PARALLEL_THRESHOLD + 1);
+	}
+
+	@Test
+	public void batchDoesNotCompressPaths() {
+
+		QuickUnionPathCompression algorithm = new QuickUnionPathCompression(5);
+		algorithm.union(0, 1);
+		algorithm.union(1, 2);
+		algorithm.union(2, 3);
+		int[] before = algorithm.getTree();
+
+		boolean[] out = new boolean[2];
+		algorithm.isConnectedAll(new int[]{0, 4}, new int[]{3, 0}, out);
+
+		assertThat(out).containsExactly(true, false);
+		assertThat(algorithm.getTree()).containsExactly(before);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void outMustHaveRoomForEveryAnswer() {
+
+		new WeightedQuickUnion(5).isConnectedAll(new int[]{0, 1}, new int[]{1, 2}, new boolean[1]);
+	}
+}
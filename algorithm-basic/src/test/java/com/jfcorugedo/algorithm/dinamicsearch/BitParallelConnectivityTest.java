@@ -0,0 +1,105 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BitParallelConnectivityTest {
+
+	@Test
+	public void universesAreIndependent() {
+
+		BitParallelConnectivity algorithm = new BitParallelConnectivity(2, 5);
+
+		assertThat(algorithm.union(0, 1, 3)).isTrue();
+		assertThat(algorithm.union(0, 3, 4)).isTrue();
+		assertThat(algorithm.union(0, 4, 1)).isFalse();
+
+		assertThat(algorithm.isConnected(0, 4, 1)).isTrue();
+		assertThat(algorithm.isConnected(1, 4, 1)).isFalse();
+		assertThat(algorithm.isConnected(1, 2, 2)).isTrue();
+		assertThat(algorithm.component(0, 1)).isEqualTo(0b11010L);
+		assertThat(algorithm.find(0, 4)).isEqualTo(1);
+		assertThat(algorithm.find(1, 4)).isEqualTo(4);
+	}
+
+	@Test
+	public void universesCanHaveSixtyFourObjects() {
+
+		BitParallelConnectivity algorithm = new BitParallelConnectivity(1, 64);
+
+		for(int i = 1 ; i < 64 ; i++) {
+			algorithm.union(0, i - 1, i);
+		}
+
+		assertThat(algorithm.component(0, 63)).isEqualTo(-1L);
+		assertThat(algorithm.isConnected(0, 0, 63)).isTrue();
+		assertThat(algorithm.find(0, 63)).isEqualTo(0);
+	}
+
+	@Test
+	public void resetDisconnectsTheObjects() {
+
+		BitParallelConnectivity algorithm = new BitParallelConnectivity(2, 4);
+		algorithm.union(0, 0, 1);
+		algorithm.union(1, 0, 1);
+
+		algorithm.reset(1);
+
+		assertThat(algorithm.isConnected(0, 0, 1)).isTrue();
+		assertThat(algorithm.isConnected(1, 0, 1)).isFalse();
+		algorithm.reset();
+		assertThat(algorithm.isConnected(0, 0, 1)).isFalse();
+	}
+
+	@Test
+	public void batchesMatchAWeightedQuickUnionPerUniverse() {
+
+		int universes = 500;
+		int size = 40;
+		int commands = 20_000;
+		Random random = new Random(41);
+		BitParallelConnectivity algorithm = new BitParallelConnectivity(universes, size);
+		WeightedQuickUnion[] expected = new WeightedQuickUnion[universes];
+		for(int u = 0 ; u < universes ; u++) {
+			expected[u] = new WeightedQuickUnion(size);
+		}
+
+		int[] us = new int[commands];
+		int[] ps = new int[commands];
+		int[] qs = new int[commands];
+		int expectedMerges = 0;
+		for(int i = 0 ; i < commands ; i++) {
+			us[i] = random.nextInt(universes);
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+			expectedMerges += expected[us[i]].tryUnion(ps[i], qs[i]) ? 1 : 0;
+		}
+		assertThat(algorithm.unionAll(us, ps, qs)).isEqualTo(expectedMerges);
+
+		for(int i = 0 ; i < commands ; i++) {
+			us[i] = random.nextInt(universes);
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+		}
+		boolean[] out = new boolean[commands];
+		algorithm.isConnectedAll(us, ps, qs, out);
+		for(int i = 0 ; i < commands ; i++) {
+			assertThat(out[i]).isEqualTo(expected[us[i]].isConnected(ps[i], qs[i]));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void universesAreLimitedToSixtyFourObjects() {
+
+		new BitParallelConnectivity(1, 65);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void objectsMustBelongToTheUniverse() {
+
+		new BitParallelConnectivity(3, 8).isConnected(1, 0, 8);
+	}
+}
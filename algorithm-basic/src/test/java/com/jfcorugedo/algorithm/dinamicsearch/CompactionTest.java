@@ -0,0 +1,122 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompactionTest {
+
+	/**
+	 * Offsets of a chain where each object is the parent of the previous one
+	 */
+	private static int[] chain(int size) {
+
+		int[] parents = new int[size];
+		for(int element = 0 ; element < size ; element++) {
+			parents[element] = Math.min(element + 1, size - 1);
+		}
+		return ImplicitArrays.encodeParents(parents);
+	}
+
+	private static int compactAll(Compaction compaction, int[] tree) {
+
+		int steps = 0;
+		do {
+			compaction.step(tree);
+			steps++;
+		} while(!compaction.isFinished());
+		return steps;
+	}
+
+	@Test
+	public void aChainIsCompactedInLinearTime() {
+
+		int size = 100_000;
+		int maxSteps = 64;
+		int[] tree = chain(size);
+
+		int steps = compactAll(new Compaction(maxSteps), tree);
+
+		assertThat(ImplicitArrays.decodeParents(tree)).containsOnly(size - 1);
+		//Each link is followed a constant number of times, so the number of steps is proportional to N / maxSteps
+		assertThat(steps).isLessThanOrEqualTo(4 * size / maxSteps);
+	}
+
+	@Test
+	public void eachStepChangesABoundedNumberOfLinks() {
+
+		int size = 10_000;
+		int maxSteps = 16;
+		int[] tree = chain(size);
+		Compaction compaction = new Compaction(maxSteps);
+
+		int changed = 0;
+		do {
+			int stepChanges = compaction.step(tree);
+			assertThat(stepChanges).isLessThanOrEqualTo(maxSteps + 1);
+			changed += stepChanges;
+		} while(!compaction.isFinished());
+
+		assertThat(changed).isGreaterThanOrEqualTo(size - 2);
+		assertThat(ImplicitArrays.decodeParents(tree)).containsOnly(size - 1);
+	}
+
+	@Test
+	public void aSingleStepPerCallStillFinishes() {
+
+		int[] tree = chain(200);
+
+		compactAll(new Compaction(1), tree);
+
+		assertThat(ImplicitArrays.decodeParents(tree)).containsOnly(199);
+	}
+
+	@Test
+	public void compactionKeepsComponents() {
+
+		Random random = new Random(5);
+		QuickUnion algorithm = new QuickUnion(2000);
+		for(int i = 0 ; i < 1500 ; i++) {
+			algorithm.union(random.nextInt(2000), random.nextInt(2000));
+		}
+		int[] roots = new int[2000];
+		for(int element = 0 ; element < 2000 ; element++) {
+			roots[element] = algorithm.find(element);
+		}
+
+		Compaction compaction = new Compaction(8);
+		while(!compaction.isFinished()) {
+			algorithm.compact(compaction);
+		}
+
+		int[] parents = algorithm.getTree();
+		assertThat(parents).containsExactly(roots);
+		assertThat(algorithm.compact(compaction)).isEqualTo(0);
+	}
+
+	@Test
+	public void restartStartsANewPass() {
+
+		int[] tree = chain(50);
+		Compaction compaction = new Compaction(4);
+		compactAll(compaction, tree);
+
+		//A new chain hanging from the old root
+		int[] parents = ImplicitArrays.decodeParents(tree);
+		parents[49] = 0;
+		parents[0] = 0;
+		tree = ImplicitArrays.encodeParents(parents);
+		compaction.restart();
+		compactAll(compaction, tree);
+
+		assertThat(ImplicitArrays.decodeParents(tree)).containsOnly(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void stepsMustFollowAtLeastOneLink() {
+
+		new Compaction(0);
+	}
+}
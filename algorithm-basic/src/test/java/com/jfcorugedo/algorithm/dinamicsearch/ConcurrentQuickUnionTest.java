@@ -0,0 +1,195 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentQuickUnionTest {
+
+	@Test
+	public void executeUnionOperationConnectsTwoElements() {
+
+		ConcurrentQuickUnion algorithm = new ConcurrentQuickUnion(10);
+
+		assertThat(algorithm.tryUnion(0, 1)).isTrue();
+		assertThat(algorithm.tryUnion(1, 0)).isFalse();
+		algorithm.union(1, 2);
+
+		assertThat(algorithm.isConnected(0, 2)).isTrue();
+		assertThat(algorithm.isConnected(0, 3)).isFalse();
+		assertThat(algorithm.find(0)).isEqualTo(algorithm.find(2));
+	}
+
+	/**
+	 * Many short histories of three threads over six objects, so threads race for the same roots
+	 * and every history can be checked
+	 */
+	@Test
+	public void concurrentHistoriesAreLinearizable() throws Exception {
+
+		int size = 6;
+		int threads = 3;
+		int commands = 12;
+		Random seeds = new Random(31);
+
+		for(int round = 0 ; round < 300 ; round++) {
+			ConcurrentQuickUnion algorithm = new ConcurrentQuickUnion(size);
+			ConcurrentHistory history = new ConcurrentHistory();
+			CyclicBarrier start = new CyclicBarrier(threads);
+			Thread[] workers = new Thread[threads];
+			for(int t = 0 ; t < threads ; t++) {
+				Random random = new Random(seeds.nextLong());
+				workers[t] = new Thread(() -> {
+					try {
+						start.await();
+					} catch(Exception e) {
+						throw new IllegalStateException(e);
+					}
+					for(int i = 0 ; i < commands ; i++) {
+						if(random.nextBoolean()) {
+							history.union(algorithm, random.nextInt(size), random.nextInt(size));
+						} else {
+							history.isConnected(algorithm, random.nextInt(size), random.nextInt(size));
+						}
+					}
+				});
+				workers[t].start();
+			}
+			for(Thread worker : workers) {
+				worker.join();
+			}
+
+			assertThat(history.getOperations()).hasSize(threads * commands);
+			assertThat(LinearizabilityChecker.isLinearizable(size, history.getOperations()))
+				.as("history %s", history.getOperations()).isTrue();
+		}
+	}
+
+	@Test
+	public void concurrentUnionsBuildTheSameComponentsAsSequentialOnes() throws InterruptedException {
+
+		int size = 100_000;
+		int threads = 8;
+		int edges = 80_000;
+		Random random = new Random(37);
+		int[] ps = new int[edges];
+		int[] qs = new int[edges];
+		WeightedQuickUnion expected = new WeightedQuickUnion(size);
+		int expectedMerges = 0;
+		for(int i = 0 ; i < edges ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+			expectedMerges += expected.tryUnion(ps[i], qs[i]) ? 1 : 0;
+		}
+
+		ConcurrentQuickUnion algorithm = new ConcurrentQuickUnion(size);
+		AtomicInteger merges = new AtomicInteger();
+		Thread[] workers = new Thread[threads];
+		for(int t = 0 ; t < threads ; t++) {
+			int first = t;
+			workers[t] = new Thread(() -> {
+				for(int i = first ; i < edges ; i += threads) {
+					if(algorithm.tryUnion(ps[i], qs[i])) {
+						merges.incrementAndGet();
+					}
+					algorithm.isConnected(qs[i], ps[(i * 7) % edges]);
+				}
+			});
+			workers[t].start();
+		}
+		for(Thread worker : workers) {
+			worker.join();
+		}
+
+		//Each merge is reported exactly once, even when two threads race to merge the same components
+		assertThat(merges.get()).isEqualTo(expectedMerges);
+		for(int i = 0 ; i < 10_000 ; i++) {
+			int p = random.nextInt(size);
+			int q = random.nextInt(size);
+			assertThat(algorithm.isConnected(p, q)).isEqualTo(expected.isConnected(p, q));
+		}
+	}
+
+	/**
+	 * Simulates another thread that links 0 under 2 (and 1 under 2, for unions) while the roots are being found.
+	 * With seed 0, priorities are 1 &lt; 0 &lt; 2, so 2 is the root that survives
+	 */
+	@Test
+	public void retriesAreReportedToTheHooks() {
+
+		InterferingQuickUnion union = new InterferingQuickUnion();
+		assertThat(union.tryUnion(0, 1)).isFalse();
+		assertThat(union.unionRetries).isEqualTo(1);
+
+		InterferingQuickUnion query = new InterferingQuickUnion();
+		query.linkBoth = false;
+		assertThat(query.isConnected(0, 1)).isFalse();
+		assertThat(query.isConnectedRetries).isEqualTo(1);
+	}
+
+	/**
+	 * Linking the objects in increasing order of the priorities without seed would build a single chain
+	 */
+	@Test
+	public void priorityOrderedUnionsDoNotBuildDeepTrees() {
+
+		int size = 1 << 14;
+		Integer[] order = new Integer[size];
+		for(int i = 0 ; i < size ; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(ConcurrentQuickUnion::priority));
+
+		ConcurrentQuickUnion algorithm = new ConcurrentQuickUnion(size);
+		for(int i = 1 ; i < size ; i++) {
+			algorithm.union(order[i - 1], order[i]);
+		}
+
+		assertThat(Arrays.stream(TraceReplay.depths(algorithm.parents())).max().getAsInt()).isLessThan(100);
+	}
+
+	private static class InterferingQuickUnion extends ConcurrentQuickUnion {
+
+		boolean interfere = true;
+
+		boolean linkBoth = true;
+
+		int unionRetries;
+
+		int isConnectedRetries;
+
+		InterferingQuickUnion() {
+			super(3, 0);
+		}
+
+		@Override
+		protected int findRoot(int element) {
+
+			int root = super.findRoot(element);
+			if(interfere && element == 1) {
+				interfere = false;
+				union(0, 2);
+				if(linkBoth) {
+					union(1, 2);
+				}
+			}
+			return root;
+		}
+
+		@Override
+		protected void unionRetried() {
+			unionRetries++;
+		}
+
+		@Override
+		protected void isConnectedRetried() {
+			isConnectedRetries++;
+		}
+	}
+}
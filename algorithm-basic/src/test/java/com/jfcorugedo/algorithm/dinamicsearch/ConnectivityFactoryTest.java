@@ -0,0 +1,27 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ConnectivityFactoryTest {
+
+	@Test
+	public void smallReadOnlySetsUseQuickFind() {
+
+		assertThat(ConnectivityFactory.create(10, 1)).isInstanceOf(QuickFind.class);
+	}
+
+	@Test
+	public void setsWithUnionsUseWeightedQuickUnionWithPathCompression() {
+
+		assertThat(ConnectivityFactory.create(10, 0.5)).isInstanceOf(WeightedQuickUnionPathCompression.class);
+		assertThat(ConnectivityFactory.create(1000000, 0.999)).isInstanceOf(WeightedQuickUnionPathCompression.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void readRatioMustBeAFraction() {
+
+		ConnectivityFactory.adaptive(10, 1.5);
+	}
+}
@@ -0,0 +1,47 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class DynamicConnectivityTest {
+
+	/**
+	 * An implementation that only provides the two original methods, like the ones written outside this package
+	 */
+	private static DynamicConnectivity minimal(int size) {
+
+		QuickFind delegate = new QuickFind(size);
+		return new DynamicConnectivity() {
+
+			@Override
+			public void union(int p, int q) {
+				delegate.union(p, q);
+			}
+
+			@Override
+			public boolean isConnected(int p, int q) {
+				return delegate.isConnected(p, q);
+			}
+		};
+	}
+
+	@Test
+	public void defaultMethodsOnlyNeedUnionAndIsConnected() {
+
+		DynamicConnectivity algorithm = minimal(4);
+
+		assertThat(algorithm.tryUnion(0, 1)).isTrue();
+		assertThat(algorithm.tryUnion(1, 0)).isFalse();
+
+		boolean[] out = new boolean[2];
+		algorithm.isConnectedAll(new int[]{0, 2}, new int[]{1, 3}, out);
+		assertThat(out).containsExactly(true, false);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void findIsNotSupportedByDefault() {
+
+		minimal(4).find(0);
+	}
+}
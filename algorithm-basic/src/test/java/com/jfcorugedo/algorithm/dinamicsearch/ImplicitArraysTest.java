@@ -0,0 +1,36 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ImplicitArraysTest {
+
+	@Test
+	public void newArraysRepresentRootsOfSizeOne() {
+
+		assertThat(ImplicitArrays.decodeParents(new int[5])).containsExactly(0, 1, 2, 3, 4);
+		assertThat(ImplicitArrays.decodeSizes(new int[5])).containsExactly(1, 1, 1, 1, 1);
+	}
+
+	@Test
+	public void parentsAreStoredAsOffsets() {
+
+		int[] offsets = ImplicitArrays.encodeParents(new int[]{0, 0, 1, 2, 2});
+
+		assertThat(offsets).containsExactly(0, -1, -1, -1, -2);
+		assertThat(ImplicitArrays.decodeParents(offsets)).containsExactly(0, 0, 1, 2, 2);
+	}
+
+	@Test
+	public void untouchedObjectsOfALargeStructureAreRoots() {
+
+		WeightedQuickUnionPathCompression algorithm = new WeightedQuickUnionPathCompression(50000000);
+
+		algorithm.union(49999999, 3);
+
+		assertThat(algorithm.find(3)).isEqualTo(49999999);
+		assertThat(algorithm.find(1234567)).isEqualTo(1234567);
+		assertThat(algorithm.isConnected(3, 1234567)).isFalse();
+	}
+}
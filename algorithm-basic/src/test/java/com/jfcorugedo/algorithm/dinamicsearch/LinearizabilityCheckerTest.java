@@ -0,0 +1,86 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.jfcorugedo.algorithm.dinamicsearch.ConcurrentHistory.Operation;
+
+public class LinearizabilityCheckerTest {
+
+	private static Operation union(int p, int q, boolean result, long invocation, long response) {
+		return new Operation(Operation.UNION, p, q, result, invocation, response);
+	}
+
+	private static Operation isConnected(int p, int q, boolean result, long invocation, long response) {
+		return new Operation(Operation.IS_CONNECTED, p, q, result, invocation, response);
+	}
+
+	@Test
+	public void sequentialHistoryOfTheReferenceIsLinearizable() {
+
+		List<Operation> history = Arrays.asList(
+				union(0, 1, true, 1, 2),
+				isConnected(0, 1, true, 3, 4),
+				union(1, 0, false, 5, 6),
+				isConnected(0, 2, false, 7, 8));
+
+		assertThat(LinearizabilityChecker.linearization(3, history)).containsExactlyElementsOf(history);
+	}
+
+	@Test
+	public void overlappingCommandsCanBeReordered() {
+
+		//The query is invoked first, but it sees the union that overlaps with it
+		Operation query = isConnected(0, 1, true, 1, 4);
+		Operation union = union(0, 1, true, 2, 3);
+
+		assertThat(LinearizabilityChecker.linearization(2, Arrays.asList(query, union))).containsExactly(union, query);
+	}
+
+	@Test
+	public void queryThatSeesAUnionFromTheFutureIsDetected() {
+
+		List<Operation> history = Arrays.asList(
+				isConnected(0, 1, true, 1, 2),
+				union(0, 1, true, 3, 4));
+
+		assertThat(LinearizabilityChecker.isLinearizable(2, history)).isFalse();
+	}
+
+	@Test
+	public void twoThreadsCanNotBothMergeTheSameComponents() {
+
+		List<Operation> history = Arrays.asList(
+				union(0, 1, true, 1, 4),
+				union(1, 0, true, 2, 3));
+
+		assertThat(LinearizabilityChecker.isLinearizable(2, history)).isFalse();
+	}
+
+	@Test
+	public void lostUpdateIsDetected() {
+
+		//Both unions finished, but a later query does not see the first one
+		List<Operation> history = Arrays.asList(
+				union(0, 1, true, 1, 3),
+				union(2, 3, true, 2, 4),
+				isConnected(0, 1, false, 5, 6));
+
+		assertThat(LinearizabilityChecker.isLinearizable(4, history)).isFalse();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void historiesAreLimitedToSixtyFourCommands() {
+
+		List<Operation> history = new ArrayList<>();
+		for(int i = 0 ; i <= LinearizabilityChecker.MAX_OPERATIONS ; i++) {
+			history.add(isConnected(0, 0, true, 2 * i + 1, 2 * i + 2));
+		}
+		LinearizabilityChecker.isLinearizable(1, history);
+	}
+}
@@ -0,0 +1,67 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LocalityRelabelingTest {
+
+	@Test
+	public void componentsAreStoredInContiguousBlocksStartingWithTheirRoot() {
+
+		WeightedQuickUnionPathCompression source = new WeightedQuickUnionPathCompression(6);
+		source.union(2, 0);
+		source.union(2, 5);
+		source.union(1, 3);
+
+		LocalityRelabeling relabeling = LocalityRelabeling.relabel(source);
+
+		assertThat(relabeling.getInverse()).containsExactly(1, 3, 2, 0, 5, 4);
+		assertThat(relabeling.getForward()).containsExactly(3, 0, 2, 1, 5, 4);
+		assertThat(relabeling.getRelabeled().getTree()).containsExactly(0, 0, 2, 2, 2, 5);
+		assertThat(relabeling.getRelabeled().getTreesSize()).containsExactly(2, 1, 3, 1, 1, 1);
+	}
+
+	@Test
+	public void relabeledStructureAnswersLikeTheSource() {
+
+		int size = 1000;
+		Random random = new Random(7);
+		WeightedQuickUnionPathCompression source = new WeightedQuickUnionPathCompression(size);
+		for(int i = 0 ; i < 600 ; i++) {
+			source.union(random.nextInt(size), random.nextInt(size));
+		}
+
+		LocalityRelabeling relabeling = LocalityRelabeling.relabel(source);
+		WeightedQuickUnionPathCompression relabeled = relabeling.getRelabeled();
+
+		for(int element = 0 ; element < size ; element++) {
+			assertThat(relabeling.toOld(relabeling.toNew(element))).isEqualTo(element);
+			assertThat(relabeled.depth(relabeling.toNew(element))).isLessThanOrEqualTo(1);
+			assertThat(relabeled.find(relabeling.toNew(element))).isEqualTo(relabeling.toNew(source.find(element)));
+		}
+		for(int i = 0 ; i < 1000 ; i++) {
+			int p = random.nextInt(size);
+			int q = random.nextInt(size);
+			assertThat(relabeled.isConnected(relabeling.toNew(p), relabeling.toNew(q))).isEqualTo(source.isConnected(p, q));
+		}
+	}
+
+	@Test
+	public void relabeledStructureKeepsWeightingNewUnions() {
+
+		WeightedQuickUnionPathCompression source = new WeightedQuickUnionPathCompression(5);
+		source.union(3, 4);
+		source.union(3, 2);
+		LocalityRelabeling relabeling = LocalityRelabeling.relabel(source);
+		WeightedQuickUnionPathCompression relabeled = relabeling.getRelabeled();
+
+		relabeled.union(relabeling.toNew(0), relabeling.toNew(4));
+
+		//The tree of three objects must win
+		assertThat(relabeling.toOld(relabeled.find(relabeling.toNew(0)))).isEqualTo(3);
+		assertThat(relabeled.getTreesSize()[relabeling.toNew(3)]).isEqualTo(4);
+	}
+}
@@ -0,0 +1,67 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class LongComponentAggregateTest {
+
+	@Test
+	public void eachObjectStartsWithItsOwnValue() {
+
+		LongComponentAggregate total = LongComponentAggregate.sum(new int[]{10, 20, 30});
+
+		assertThat(total.valueOf(0)).isEqualTo(10);
+		assertThat(total.valueOf(1)).isEqualTo(20);
+		assertThat(total.valueOf(2)).isEqualTo(30);
+	}
+
+	@Test
+	public void valuesAreCombinedWhenTreesAreMerged() {
+
+		WeightedQuickUnion algorithm = new WeightedQuickUnion(5);
+		LongComponentAggregate total = LongComponentAggregate.sum(new long[]{10, 20, 30, 40, 50});
+		LongComponentAggregate minimum = LongComponentAggregate.min(new long[]{10, 20, 30, 40, 50});
+		LongComponentAggregate maximum = LongComponentAggregate.max(new long[]{10, 20, 30, 40, 50});
+		LongComponentAggregate count = LongComponentAggregate.count(5);
+		algorithm.setMergeListener(total.andThen(minimum).andThen(maximum).andThen(count));
+
+		algorithm.union(0, 3);
+		algorithm.union(3, 4);
+		algorithm.union(1, 2);
+
+		int root = algorithm.find(4);
+		assertThat(total.valueOf(root)).isEqualTo(100);
+		assertThat(minimum.valueOf(root)).isEqualTo(10);
+		assertThat(maximum.valueOf(root)).isEqualTo(50);
+		assertThat(count.valueOf(root)).isEqualTo(3);
+		assertThat(total.valueOf(algorithm.find(1))).isEqualTo(50);
+	}
+
+	@Test
+	public void redundantUnionsDoNotCombineValuesTwice() {
+
+		WeightedQuickUnionPathCompression algorithm = new WeightedQuickUnionPathCompression(4);
+		LongComponentAggregate count = LongComponentAggregate.count(new boolean[]{true, false, true, true});
+		algorithm.setMergeListener(count);
+
+		algorithm.union(0, 1);
+		algorithm.union(1, 2);
+		algorithm.union(2, 0);
+		algorithm.union(0, 2);
+
+		assertThat(count.valueOf(algorithm.find(0))).isEqualTo(2);
+	}
+
+	@Test
+	public void attributesAreCopied() {
+
+		long[] attribute = {1, 2};
+		WeightedQuickUnion algorithm = new WeightedQuickUnion(2);
+		algorithm.setMergeListener(LongComponentAggregate.sum(attribute));
+
+		algorithm.union(0, 1);
+
+		assertThat(attribute).containsExactly(1, 2);
+	}
+}
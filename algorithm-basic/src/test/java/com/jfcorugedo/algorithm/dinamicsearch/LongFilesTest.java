@@ -0,0 +1,83 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LongFilesTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void write(Path file, long[] records) throws IOException {
+
+		try(LongFiles.Writer writer = new LongFiles.Writer(file, 64)) {
+			for(long record : records) {
+				writer.write(record);
+			}
+		}
+	}
+
+	private static long[] read(Path file) throws IOException {
+
+		long[] records = new long[(int) (Files.size(file) / Long.BYTES)];
+		try(LongFiles.Reader reader = new LongFiles.Reader(file, 24)) {
+			for(int i = 0 ; i < records.length ; i++) {
+				assertThat(reader.hasNext()).isTrue();
+				assertThat(reader.peek()).isEqualTo(reader.peek());
+				records[i] = reader.next();
+			}
+			assertThat(reader.hasNext()).isFalse();
+		}
+		return records;
+	}
+
+	/**
+	 * Runs of 10 records merged 2 at a time (20 records of memory, blocks of 10 records), so there are several merge passes
+	 */
+	@Test
+	public void filesLargerThanTheBufferAreSortedInSeveralPasses() throws IOException {
+
+		long[] records = new Random(5).longs(1000, -50, 50).toArray();
+		Path in = folder.newFile().toPath();
+		Path out = folder.newFile().toPath();
+		write(in, records);
+
+		assertThat(LongFiles.sort(in, out, new long[10], 80, false)).isEqualTo(1000);
+
+		long[] expected = records.clone();
+		Arrays.sort(expected);
+		assertThat(read(out)).containsExactly(expected);
+		assertThat(read(in)).containsExactly(records);
+		//Every run has been deleted
+		assertThat(folder.getRoot().list()).hasSize(2);
+	}
+
+	@Test
+	public void repeatedRecordsCanBeRemoved() throws IOException {
+
+		Path file = folder.newFile().toPath();
+		write(file, new long[]{3, 1, 3, 2, 1, 3, 1, 2});
+
+		assertThat(LongFiles.sort(file, file, new long[3], 8, true)).isEqualTo(3);
+
+		assertThat(read(file)).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void emptyFilesAreSorted() throws IOException {
+
+		Path file = folder.newFile().toPath();
+
+		assertThat(LongFiles.sort(file, file, new long[4], 8, true)).isEqualTo(0);
+		assertThat(Files.size(file)).isEqualTo(0);
+	}
+}
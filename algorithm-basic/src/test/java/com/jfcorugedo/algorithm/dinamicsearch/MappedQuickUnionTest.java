@@ -0,0 +1,96 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedQuickUnionTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void newFileRepresentsDisconnectedObjects() throws Exception {
+
+		Path file = folder.getRoot().toPath().resolve("parents");
+		try(MappedQuickUnion algorithm = new MappedQuickUnion(file, 5)) {
+
+			assertThat(algorithm.getTree()).containsExactly(0, 1, 2, 3, 4);
+			assertThat(algorithm.size()).isEqualTo(5);
+		}
+		assertThat(Files.size(file)).isEqualTo(5 * Integer.BYTES);
+	}
+
+	@Test
+	public void executeUnionOperationConnectsTwoElements() throws Exception {
+
+		try(MappedQuickUnion algorithm = new MappedQuickUnion(folder.newFile().toPath(), 10)) {
+
+			assertThat(algorithm.tryUnion(0, 1)).isTrue();
+			assertThat(algorithm.tryUnion(1, 0)).isFalse();
+			algorithm.union(1, 2);
+
+			assertThat(algorithm.isConnected(0, 2)).isTrue();
+			assertThat(algorithm.isConnected(0, 3)).isFalse();
+			assertThat(algorithm.find(0)).isEqualTo(algorithm.find(2));
+		}
+	}
+
+	@Test
+	public void answersLikeWeightedQuickUnion() throws Exception {
+
+		int size = 500;
+		Random random = new Random(43);
+		WeightedQuickUnion expected = new WeightedQuickUnion(size);
+
+		try(MappedQuickUnion algorithm = new MappedQuickUnion(folder.newFile().toPath(), size)) {
+			for(int i = 0 ; i < 2000 ; i++) {
+				int p = random.nextInt(size);
+				int q = random.nextInt(size);
+				if(random.nextBoolean()) {
+					assertThat(algorithm.tryUnion(p, q)).isEqualTo(expected.tryUnion(p, q));
+				} else {
+					assertThat(algorithm.isConnected(p, q)).isEqualTo(expected.isConnected(p, q));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Linking the objects in increasing order of the priorities without seed would build a single chain
+	 */
+	@Test
+	public void priorityOrderedUnionsDoNotBuildDeepTrees() throws Exception {
+
+		int size = 1 << 14;
+		Integer[] order = new Integer[size];
+		for(int i = 0 ; i < size ; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(ConcurrentQuickUnion::priority));
+
+		try(MappedQuickUnion algorithm = new MappedQuickUnion(folder.newFile().toPath(), size)) {
+			for(int i = 1 ; i < size ; i++) {
+				algorithm.union(order[i - 1], order[i]);
+			}
+
+			assertThat(Arrays.stream(TraceReplay.depths(algorithm.getTree())).max().getAsInt()).isLessThan(100);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void objectsOutOfRangeAreRejected() throws Exception {
+
+		try(MappedQuickUnion algorithm = new MappedQuickUnion(folder.newFile().toPath(), 3)) {
+			algorithm.find(3);
+		}
+	}
+}
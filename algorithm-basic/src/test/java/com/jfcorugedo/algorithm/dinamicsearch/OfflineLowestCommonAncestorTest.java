@@ -0,0 +1,89 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OfflineLowestCommonAncestorTest {
+
+	/**
+	 * <pre>
+	 *         0         5
+	 *        / \        |
+	 *       1   2       6
+	 *      / \
+	 *     3   4
+	 * </pre>
+	 */
+	private static final int[] FOREST = {0, 0, 0, 1, 1, 5, 5};
+
+	@Test
+	public void answersEveryQueryOfTheBatch() {
+
+		int[] answers = OfflineLowestCommonAncestor.lowestCommonAncestors(FOREST,
+				new int[]{4, 2, 3, 3, 6, 0, 1},
+				new int[]{3, 3, 1, 3, 5, 4, 6});
+
+		assertThat(answers).containsExactly(1, 0, 1, 3, 5, 0, OfflineLowestCommonAncestor.NO_ANCESTOR);
+	}
+
+	@Test
+	public void deepTreesDoNotOverflowTheStack() {
+
+		int size = 1_000_000;
+		int[] path = new int[size];
+		for(int i = 1 ; i < size ; i++) {
+			path[i] = i - 1;
+		}
+
+		int[] answers = OfflineLowestCommonAncestor.lowestCommonAncestors(path, new int[]{size - 1, 10}, new int[]{500, 20});
+
+		assertThat(answers).containsExactly(500, 10);
+	}
+
+	@Test
+	public void answersMatchClimbingFromBothObjects() {
+
+		int size = 500;
+		Random random = new Random(11);
+		int[] parents = new int[size];
+		int[] depth = new int[size];
+		for(int i = 0 ; i < size ; i++) {
+			//Roughly one root every 50 objects
+			parents[i] = i == 0 || random.nextInt(50) == 0 ? i : random.nextInt(i);
+			depth[i] = parents[i] == i ? 0 : depth[parents[i]] + 1;
+		}
+		int[] ps = new int[2000];
+		int[] qs = new int[2000];
+		for(int i = 0 ; i < ps.length ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+		}
+
+		int[] answers = OfflineLowestCommonAncestor.lowestCommonAncestors(parents, ps, qs);
+
+		for(int i = 0 ; i < ps.length ; i++) {
+			int p = ps[i];
+			int q = qs[i];
+			while(depth[p] > depth[q]) {
+				p = parents[p];
+			}
+			while(depth[q] > depth[p]) {
+				q = parents[q];
+			}
+			while(p != q && parents[p] != p) {
+				p = parents[p];
+				q = parents[q];
+			}
+			assertThat(answers[i]).isEqualTo(p == q ? p : OfflineLowestCommonAncestor.NO_ANCESTOR);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void cyclesAreRejected() {
+
+		OfflineLowestCommonAncestor.lowestCommonAncestors(new int[]{0, 2, 1}, new int[0], new int[0]);
+	}
+}
@@ -0,0 +1,107 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OffsetWeightedQuickUnionTest {
+
+	@Test
+	public void differencesAreImpliedByTheConstraints() {
+
+		OffsetWeightedQuickUnion algorithm = OffsetWeightedQuickUnion.additive(5);
+
+		assertThat(algorithm.union(0, 1, 5)).isTrue();
+		assertThat(algorithm.union(1, 2, 3)).isTrue();
+
+		assertThat(algorithm.difference(0, 2)).isEqualTo(8);
+		assertThat(algorithm.difference(2, 0)).isEqualTo(-8);
+		assertThat(algorithm.difference(1, 1)).isEqualTo(0);
+		assertThat(algorithm.union(2, 0, -8)).isTrue();
+		assertThat(algorithm.union(2, 0, 1)).isFalse();
+		assertThat(algorithm.difference(0, 2)).isEqualTo(8);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void unconnectedObjectsHaveNoDifference() {
+
+		OffsetWeightedQuickUnion.additive(5).difference(0, 1);
+	}
+
+	@Test
+	public void plainUnionMeansTheSameValue() {
+
+		OffsetWeightedQuickUnion algorithm = OffsetWeightedQuickUnion.additive(5);
+
+		assertThat(algorithm.tryUnion(3, 4)).isTrue();
+		assertThat(algorithm.tryUnion(4, 3)).isFalse();
+		assertThat(algorithm.difference(3, 4)).isEqualTo(0);
+	}
+
+	@Test
+	public void tryUnionKeepsTheDifferencesOfBothComponents() {
+
+		OffsetWeightedQuickUnion algorithm = OffsetWeightedQuickUnion.additive(6);
+		algorithm.union(0, 1, 3);
+		algorithm.union(2, 3, 4);
+		algorithm.union(3, 4, 2);
+
+		assertThat(algorithm.tryUnion(4, 1)).isTrue();
+		assertThat(algorithm.tryUnion(0, 2)).isFalse();
+
+		//value(0) = value(1) + 3, value(1) = value(4), value(2) = value(3) + 4 = value(4) + 6
+		assertThat(algorithm.difference(1, 4)).isEqualTo(0);
+		assertThat(algorithm.difference(0, 2)).isEqualTo(-3);
+		assertThat(algorithm.difference(2, 1)).isEqualTo(6);
+	}
+
+	@Test
+	public void parityDetectsOddCycles() {
+
+		OffsetWeightedQuickUnion algorithm = OffsetWeightedQuickUnion.parity(6);
+
+		//Square 0-1-2-3: bipartite
+		assertThat(algorithm.union(0, 1, 1)).isTrue();
+		assertThat(algorithm.union(1, 2, 1)).isTrue();
+		assertThat(algorithm.union(2, 3, 1)).isTrue();
+		assertThat(algorithm.union(3, 0, 1)).isTrue();
+		assertThat(algorithm.difference(0, 2)).isEqualTo(0);
+		assertThat(algorithm.difference(1, 0)).isEqualTo(1);
+
+		//Triangle 3-4-5 closed by 5-3: odd cycle
+		assertThat(algorithm.union(3, 4, 1)).isTrue();
+		assertThat(algorithm.union(4, 5, 1)).isTrue();
+		assertThat(algorithm.union(5, 3, 1)).isFalse();
+	}
+
+	@Test
+	public void differencesSurvivePathCompression() {
+
+		int size = 2000;
+		Random random = new Random(29);
+		long[] values = new long[size];
+		for(int i = 0 ; i < size ; i++) {
+			values[i] = random.nextLong();
+		}
+		OffsetWeightedQuickUnion algorithm = OffsetWeightedQuickUnion.additive(size);
+		WeightedQuickUnion expected = new WeightedQuickUnion(size);
+
+		for(int i = 0 ; i < 3000 ; i++) {
+			int p = random.nextInt(size);
+			int q = random.nextInt(size);
+			//Every constraint agrees with the hidden values, so none of them is rejected
+			assertThat(algorithm.union(p, q, values[p] - values[q])).isTrue();
+			expected.union(p, q);
+
+			int r = random.nextInt(size);
+			int s = random.nextInt(size);
+			assertThat(algorithm.isConnected(r, s)).isEqualTo(expected.isConnected(r, s));
+			if(expected.isConnected(r, s)) {
+				assertThat(algorithm.difference(r, s)).isEqualTo(values[r] - values[s]);
+				assertThat(algorithm.union(r, s, values[r] - values[s] + 1)).isFalse();
+			}
+		}
+	}
+}
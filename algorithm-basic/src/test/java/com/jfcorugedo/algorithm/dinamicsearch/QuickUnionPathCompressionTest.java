@@ -83,4 +83,19 @@ public class QuickUnionPathCompressionTest {
 			quickUnionAlgorithm.isConnected(0, 1);//it's the worst case
 		}		
 	}
+
+	@Test
+	public void aRedundantTryUnionHalvesThePathOfItsObjects() {
+
+		QuickUnionPathCompression algorithm = new QuickUnionPathCompression(10);
+		//Chain 0 -> 1 -> ... -> 9: each union links a root, so no path is halved yet
+		for(int i = 1 ; i < 10 ; i++) {
+			algorithm.union(i - 1, i);
+		}
+
+		assertThat(algorithm.tryUnion(0, 9)).isFalse();
+
+		//0 -> 2 -> 4 -> 6 -> 8 -> 9
+		assertThat(algorithm.parents()).containsExactly(2, 2, 4, 4, 6, 6, 8, 8, 9, 9);
+	}
 }
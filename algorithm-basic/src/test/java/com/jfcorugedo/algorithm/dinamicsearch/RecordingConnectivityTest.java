@@ -0,0 +1,64 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class RecordingConnectivityTest {
+
+	@Test
+	public void commandsAreExecutedByTheDelegate() throws IOException {
+
+		try(RecordingConnectivity algorithm = new RecordingConnectivity(new WeightedQuickUnion(10), 10, new ByteArrayOutputStream())) {
+
+			algorithm.union(0, 1);
+
+			assertThat(algorithm.isConnected(0, 1)).isTrue();
+			assertThat(algorithm.find(1)).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void recordedTraceCanBeReadBack() throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(RecordingConnectivity algorithm = new RecordingConnectivity(new WeightedQuickUnion(100000), 100000, out)) {
+			algorithm.union(7, 3);
+			algorithm.isConnected(99999, 0);
+			algorithm.find(12345);
+			algorithm.union(0, 99999);
+		}
+
+		ConnectivityTrace trace = ConnectivityTrace.read(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(trace.getSize()).isEqualTo(100000);
+		assertThat(trace.getLength()).isEqualTo(4);
+		assertThat(trace.getCommands()).startsWith(ConnectivityTrace.UNION, ConnectivityTrace.IS_CONNECTED, ConnectivityTrace.FIND, ConnectivityTrace.UNION);
+		assertThat(trace.getPs()).startsWith(7, 99999, 12345, 0);
+		assertThat(trace.getQs()).startsWith(3, 0, 12345, 99999);
+	}
+
+	@Test
+	public void closeObjectsAreEncodedInFewBytes() throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(RecordingConnectivity algorithm = new RecordingConnectivity(new WeightedQuickUnion(10), 10, out)) {
+			for(int i = 1 ; i < 10 ; i++) {
+				algorithm.union(i - 1, i);
+			}
+		}
+
+		//Header (4 bytes of magic number, 1 of version, 1 of size) and two bytes per command
+		assertThat(out.size()).isEqualTo(6 + 9 * 2);
+	}
+
+	@Test(expected = IOException.class)
+	public void otherFilesAreRejected() throws IOException {
+
+		ConnectivityTrace.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}));
+	}
+}
@@ -0,0 +1,129 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * JMH benchmark of the latency of random connectivity queries over a big {@link WeightedQuickUnionPathCompression},
+ * before and after a {@link LocalityRelabeling}.
+ * </p>
+ *
+ * <p>
+ * The source structure is built with random unions and then every path is compressed with a find over each
+ * object, so both structures have trees of depth one and the difference is only where the roots are stored.
+ * Three variants are measured, over the same random pairs:
+ * </p>
+ * <ul>
+ * 		<li>original: the source structure</li>
+ * 		<li>relabeled: the relabeled structure, with pairs already expressed in new ids</li>
+ * 		<li>translated: the relabeled structure, translating each old id with {@link LocalityRelabeling#toNew(int)}</li>
+ * </ul>
+ * <p>
+ * Each invocation answers {@value #QUERIES} queries, and the score is the time per query. The perfnorm profiler
+ * reads the hardware counters, so it shows the cache and TLB misses of each query:
+ * </p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main RelabelingBenchmark \
+ *     -p size=200000000 -jvmArgs -Xmx8g -prof perfnorm
+ * </pre>
+ *
+ * @see LocalityRelabeling
+ * @author jfcorugedo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RelabelingBenchmark {
+
+	/** Queries answered by each invocation */
+	static final int QUERIES = 1 << 20;
+
+	@Param("20000000")
+	public int size;
+
+	private WeightedQuickUnionPathCompression source;
+
+	private WeightedQuickUnionPathCompression relabeled;
+
+	private LocalityRelabeling relabeling;
+
+	private int[] ps;
+
+	private int[] qs;
+
+	@Setup
+	public void build() {
+
+		SplittableRandom random = new SplittableRandom(42);
+		source = new WeightedQuickUnionPathCompression(size);
+		//Fewer unions than objects, so there are components of many different sizes
+		for(int i = 0 ; i < size / 2 ; i++) {
+			source.union(random.nextInt(size), random.nextInt(size));
+		}
+		for(int element = 0 ; element < size ; element++) {
+			source.find(element);
+		}
+		relabeling = LocalityRelabeling.relabel(source);
+		relabeled = relabeling.getRelabeled();
+
+		ps = new int[QUERIES];
+		qs = new int[QUERIES];
+		for(int i = 0 ; i < QUERIES ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int original() {
+
+		int connected = 0;
+		for(int i = 0 ; i < QUERIES ; i++) {
+			connected += source.isConnected(ps[i], qs[i]) ? 1 : 0;
+		}
+		return connected;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int relabeled() {
+
+		int connected = 0;
+		for(int i = 0 ; i < QUERIES ; i++) {
+			//Uniform random ids are also uniform random new ids, like callers that already store new ids
+			connected += relabeled.isConnected(ps[i], qs[i]) ? 1 : 0;
+		}
+		return connected;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int translated() {
+
+		int connected = 0;
+		for(int i = 0 ; i < QUERIES ; i++) {
+			connected += relabeled.isConnected(relabeling.toNew(ps[i]), relabeling.toNew(qs[i])) ? 1 : 0;
+		}
+		return connected;
+	}
+}
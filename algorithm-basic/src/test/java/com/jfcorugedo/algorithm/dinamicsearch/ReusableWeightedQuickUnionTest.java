@@ -0,0 +1,79 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ReusableWeightedQuickUnionTest {
+
+	@Test
+	public void executeUnionOperationConnectsTwoElements() {
+
+		ReusableWeightedQuickUnion algorithm = new ReusableWeightedQuickUnion(10);
+
+		algorithm.union(0, 1);
+
+		assertThat(algorithm.isConnected(0, 1)).isTrue();
+		assertThat(algorithm.isConnected(0, 2)).isFalse();
+	}
+
+	@Test
+	public void resetDisconnectsAllTheObjects() {
+
+		ReusableWeightedQuickUnion algorithm = new ReusableWeightedQuickUnion(10);
+		algorithm.union(0, 1);
+		algorithm.union(1, 2);
+
+		algorithm.reset();
+
+		for(int i = 0 ; i < 10 ; i++) {
+			assertThat(algorithm.find(i)).isEqualTo(i);
+		}
+		assertThat(algorithm.getTree()).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		assertThat(algorithm.getTreesSize()).containsExactly(1, 1, 1, 1, 1, 1, 1, 1, 1, 1);
+	}
+
+	@Test
+	public void valuesOfPreviousEpochsAreIgnored() {
+
+		ReusableWeightedQuickUnion algorithm = new ReusableWeightedQuickUnion(10);
+		algorithm.union(2, 3);
+		algorithm.union(2, 4);
+		algorithm.reset();
+
+		//The old tree of 2 had size 3: it must not win against the tree of 5 and 6
+		algorithm.union(5, 6);
+		algorithm.union(2, 5);
+
+		assertThat(algorithm.find(2)).isEqualTo(5);
+		assertThat(algorithm.isConnected(3, 2)).isFalse();
+		assertThat(algorithm.getTreesSize()[5]).isEqualTo(3);
+	}
+
+	/**
+	 * Given a set of 10 items, execute this union operations: 7-3 9-1 6-2 6-7 5-4 8-0 7-1 8-4 5-6.
+	 * The result must be the same as {@link WeightedQuickUnion}, even after a reset
+	 */
+	@Test
+	public void behavesLikeWeightedQuickUnionAfterReset() {
+
+		ReusableWeightedQuickUnion algorithm = new ReusableWeightedQuickUnion(10);
+		for(int i = 1 ; i < 10 ; i++) {
+			algorithm.union(i, i - 1);
+		}
+		algorithm.reset();
+
+		algorithm.union(7, 3);
+		algorithm.union(9, 1);
+		algorithm.union(6, 2);
+		algorithm.union(6, 7);
+		algorithm.union(5, 4);
+		algorithm.union(8, 0);
+		algorithm.union(7, 1);
+		algorithm.union(8, 4);
+		algorithm.union(5, 6);
+
+		assertThat(algorithm.getTree()).containsExactly(8, 9, 6, 7, 5, 8, 6, 6, 6, 6);
+		assertThat(algorithm.getTreesSize()).containsExactly(1, 1, 1, 1, 1, 2, 10, 2, 4, 2);
+	}
+}
@@ -0,0 +1,84 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class RollbackWeightedQuickUnionTest {
+
+	@Test
+	public void executeUnionOperationConnectsTwoElements() {
+
+		RollbackWeightedQuickUnion algorithm = new RollbackWeightedQuickUnion(10);
+
+		algorithm.union(0, 1);
+
+		assertThat(algorithm.isConnected(0, 1)).isTrue();
+	}
+
+	@Test
+	public void undoDisconnectsTheLastUnion() {
+
+		RollbackWeightedQuickUnion algorithm = new RollbackWeightedQuickUnion(10);
+
+		algorithm.union(0, 1);
+		algorithm.union(1, 2);
+		algorithm.undo();
+
+		assertThat(algorithm.isConnected(0, 1)).isTrue();
+		assertThat(algorithm.isConnected(0, 2)).isFalse();
+	}
+
+	@Test
+	public void redundantUnionsAreAlsoUndone() {
+
+		RollbackWeightedQuickUnion algorithm = new RollbackWeightedQuickUnion(10);
+
+		algorithm.union(0, 1);
+		algorithm.union(1, 0);
+		algorithm.undo();
+
+		assertThat(algorithm.getHistorySize()).isEqualTo(1);
+		assertThat(algorithm.isConnected(0, 1)).isTrue();
+	}
+
+	/**
+	 * Given a set of 10 items, execute this union operations: 1-6 5-7 2-4 6-7 and undo the last one.
+	 * The result must be the same as executing only 1-6 5-7 2-4
+	 */
+	@Test
+	public void rollbackRestoresTreesAndSizes() {
+
+		RollbackWeightedQuickUnion algorithm = new RollbackWeightedQuickUnion(10);
+
+		algorithm.union(1, 6);
+		algorithm.union(5, 7);
+		algorithm.union(2, 4);
+		int historySize = algorithm.getHistorySize();
+		algorithm.union(6, 7);
+		algorithm.union(7, 8);
+		algorithm.rollback(historySize);
+
+		assertThat(algorithm.getTree()).containsExactly(0, 1, 2, 3, 2, 5, 1, 5, 8, 9);
+		assertThat(algorithm.getTreesSize()).containsExactly(1, 2, 2, 1, 1, 2, 1, 1, 1, 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cannotUndoWithoutHistory() {
+
+		new RollbackWeightedQuickUnion(10).undo();
+	}
+
+	@Test
+	public void redundantTryUnionCanAlsoBeUndone() {
+
+		RollbackWeightedQuickUnion algorithm = new RollbackWeightedQuickUnion(10);
+
+		assertThat(algorithm.tryUnion(1, 2)).isTrue();
+		assertThat(algorithm.tryUnion(2, 1)).isFalse();
+		algorithm.undo();
+
+		assertThat(algorithm.isConnected(1, 2)).isTrue();
+		assertThat(algorithm.getHistorySize()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,208 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * JMH benchmark of the throughput of thread safe implementations of {@link DynamicConnectivity} as the number
+ * of threads grows, under several contention profiles.
+ * </p>
+ *
+ * <p>
+ * A profile is the ratio of isConnected queries (the rest are unions) and the fraction of the objects that
+ * the commands touch: the smaller that hot set, the more threads compete for the same roots. All the threads
+ * share one structure, created again before each iteration, and run random commands.
+ * </p>
+ * <p>
+ * Besides the throughput, each iteration reports how often {@link ConcurrentQuickUnion} had to retry
+ * (unionRetries, isConnectedRetries) and how many path halving CAS failed (failedCompressions), so the
+ * loss of scalability can be explained by the contention that causes it. A synchronized
+ * {@link WeightedQuickUnion} is measured too, as the baseline that any lock-free implementation must beat.
+ * </p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * for t in 1 2 4 8; do
+ *     java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main ScalabilityBenchmark -t $t
+ * done
+ * </pre>
+ *
+ * @see ConcurrentQuickUnion
+ * @see LinearizabilityChecker
+ * @author jfcorugedo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalabilityBenchmark {
+
+	/** Counters of the thread running the commands, so a retry only touches memory of its own thread */
+	private static final ThreadLocal<Retries> RETRIES = new ThreadLocal<>();
+
+	@Param({"ConcurrentQuickUnion", "SynchronizedWeightedQuickUnion"})
+	public String implementation;
+
+	@Param("1000000")
+	public int size;
+
+	/** Fraction of the commands that are isConnected queries (the rest are unions) */
+	@Param({"0.9", "0.1"})
+	public double readRatio;
+
+	/** Fraction of the objects that the commands touch (1 touches all of them) */
+	@Param({"1", "0.001"})
+	public double hotFraction;
+
+	private DynamicConnectivity connectivity;
+
+	private int hot;
+
+	/**
+	 * Unions would connect every object after a few iterations, so each one starts with a new structure
+	 */
+	@Setup(Level.Iteration)
+	public void create() {
+
+		hot = Math.max(1, (int) (size * hotFraction));
+		switch(implementation) {
+			case "ConcurrentQuickUnion":
+				connectivity = new CountingQuickUnion(size);
+				break;
+			case "SynchronizedWeightedQuickUnion":
+				connectivity = new SynchronizedConnectivity(new WeightedQuickUnion(size));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+
+	@Benchmark
+	public boolean command(Commands commands, Retries retries) {
+
+		SplittableRandom random = commands.random;
+		int p = random.nextInt(hot);
+		int q = random.nextInt(hot);
+		if(random.nextDouble() < readRatio) {
+			return connectivity.isConnected(p, q);
+		}
+		return connectivity.tryUnion(p, q);
+	}
+
+	/**
+	 * Random commands of one thread. Each thread has a different seed
+	 */
+	@State(Scope.Thread)
+	public static class Commands {
+
+		private static final AtomicLong SEEDS = new AtomicLong();
+
+		SplittableRandom random;
+
+		@Setup(Level.Trial)
+		public void seed() {
+			random = new SplittableRandom(SEEDS.incrementAndGet());
+		}
+	}
+
+	/**
+	 * Retries of one thread during one iteration. JMH adds the counters of all the threads and reports them next to the throughput
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Retries {
+
+		public long unionRetries;
+
+		public long isConnectedRetries;
+
+		public long failedCompressions;
+
+		/**
+		 * JMH calls the setup of a thread state in the thread that uses it
+		 */
+		@Setup(Level.Iteration)
+		public void register() {
+
+			unionRetries = 0;
+			isConnectedRetries = 0;
+			failedCompressions = 0;
+			RETRIES.set(this);
+		}
+	}
+
+	/**
+	 * Counts every retry in the counters of the current thread
+	 */
+	private static class CountingQuickUnion extends ConcurrentQuickUnion {
+
+		CountingQuickUnion(int size) {
+			super(size);
+		}
+
+		@Override
+		protected void unionRetried() {
+			RETRIES.get().unionRetries++;
+		}
+
+		@Override
+		protected void isConnectedRetried() {
+			RETRIES.get().isConnectedRetries++;
+		}
+
+		@Override
+		protected void compressionFailed() {
+			RETRIES.get().failedCompressions++;
+		}
+	}
+
+	/**
+	 * Executes each command holding the monitor of this object
+	 */
+	private static class SynchronizedConnectivity implements DynamicConnectivity {
+
+		private final DynamicConnectivity delegate;
+
+		SynchronizedConnectivity(DynamicConnectivity delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public synchronized void union(int p, int q) {
+			delegate.union(p, q);
+		}
+
+		@Override
+		public synchronized boolean tryUnion(int p, int q) {
+			return delegate.tryUnion(p, q);
+		}
+
+		@Override
+		public synchronized boolean isConnected(int p, int q) {
+			return delegate.isConnected(p, q);
+		}
+
+		@Override
+		public synchronized int find(int p) {
+			return delegate.find(p);
+		}
+	}
+}
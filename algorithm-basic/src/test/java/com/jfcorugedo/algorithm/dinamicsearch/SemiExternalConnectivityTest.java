@@ -0,0 +1,224 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SemiExternalConnectivityTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void writesTheRootOfEachVertex() throws Exception {
+
+		Path edges = folder.newFile().toPath();
+		Path labels = folder.newFile().toPath();
+		SemiExternalConnectivity.writeEdges(edges, new int[]{0, 2, 1}, new int[]{1, 3, 4});
+
+		try(SemiExternalConnectivity connectivity = SemiExternalConnectivity.inMemory(6, SemiExternalConnectivity.DEFAULT_BLOCK_SIZE)) {
+
+			assertThat(connectivity.addEdges(edges)).isEqualTo(3);
+			assertThat(connectivity.writeLabels(labels)).isEqualTo(3);
+			assertThat(connectivity.getEdges()).isEqualTo(3);
+		}
+
+		assertThat(readLabels(labels, 6)).containsExactly(0, 0, 2, 2, 0, 5);
+	}
+
+	/**
+	 * Blocks of 3 edges and a bit, so edges and labels are split between blocks
+	 */
+	@Test
+	public void bothModesAgreeWithWeightedQuickUnion() throws Exception {
+
+		int vertices = 1000;
+		int[] ps = new int[700];
+		int[] qs = new int[700];
+		Random random = new Random(43);
+		WeightedQuickUnion expected = new WeightedQuickUnion(vertices);
+		for(int i = 0 ; i < ps.length ; i++) {
+			ps[i] = random.nextInt(vertices);
+			qs[i] = random.nextInt(vertices);
+			expected.union(ps[i], qs[i]);
+		}
+		Path first = folder.newFile().toPath();
+		Path second = folder.newFile().toPath();
+		SemiExternalConnectivity.writeEdges(first, Arrays.copyOf(ps, 400), Arrays.copyOf(qs, 400));
+		SemiExternalConnectivity.writeEdges(second, Arrays.copyOfRange(ps, 400, 700), Arrays.copyOfRange(qs, 400, 700));
+
+		try(SemiExternalConnectivity inMemory = SemiExternalConnectivity.inMemory(vertices, 27);
+				SemiExternalConnectivity mapped = SemiExternalConnectivity.mapped(vertices, folder.newFile().toPath(), 27)) {
+			for(SemiExternalConnectivity connectivity : new SemiExternalConnectivity[]{inMemory, mapped}) {
+				connectivity.addEdges(first);
+				connectivity.addEdges(second);
+				Path labels = folder.newFile().toPath();
+				long components = connectivity.writeLabels(labels);
+
+				int[] read = readLabels(labels, vertices);
+				int distinct = 0;
+				for(int p = 0 ; p < vertices ; p++) {
+					distinct += read[p] == p ? 1 : 0;
+					for(int q = p + 1 ; q < vertices ; q += 37) {
+						assertThat(read[p] == read[q]).isEqualTo(expected.isConnected(p, q));
+					}
+				}
+				assertThat(components).isEqualTo(distinct);
+				assertThat(connectivity.getEdges()).isEqualTo(700);
+			}
+		}
+	}
+
+	@Test
+	public void externalModeLabelsEachVertexWithTheSmallestOfItsComponent() throws Exception {
+
+		Path edges = folder.newFile().toPath();
+		Path labels = folder.newFile().toPath();
+		//A path whose ids alternate, so the vertices are removed in several passes
+		SemiExternalConnectivity.writeEdges(edges, new int[]{9, 3, 8, 4, 7, 5}, new int[]{3, 8, 4, 7, 5, 9});
+
+		try(SemiExternalConnectivity connectivity = SemiExternalConnectivity.external(12, folder.getRoot().toPath(), 64, 16)) {
+
+			assertThat(connectivity.addEdges(edges)).isEqualTo(6);
+			assertThat(connectivity.writeLabels(labels)).isEqualTo(7);
+			assertThat(connectivity.getComponents()).isEqualTo(7);
+		}
+
+		assertThat(readLabels(labels, 12)).containsExactly(0, 1, 2, 3, 3, 3, 6, 3, 3, 3, 10, 11);
+		//Only the labels are left
+		assertThat(folder.getRoot().list()).hasSize(2);
+	}
+
+	/**
+	 * The sorts can only keep 16 records in memory, so every sort has many runs and several merge passes
+	 */
+	@Test
+	public void externalModeAgreesWithWeightedQuickUnion() throws Exception {
+
+		int vertices = 3000;
+		int[] ps = new int[2500];
+		int[] qs = new int[2500];
+		Random random = new Random(47);
+		WeightedQuickUnion expected = new WeightedQuickUnion(vertices);
+		for(int i = 0 ; i < ps.length ; i++) {
+			ps[i] = random.nextInt(vertices);
+			qs[i] = random.nextInt(vertices);
+			expected.union(ps[i], qs[i]);
+		}
+		Path first = folder.newFile().toPath();
+		Path second = folder.newFile().toPath();
+		SemiExternalConnectivity.writeEdges(first, Arrays.copyOf(ps, 1000), Arrays.copyOf(qs, 1000));
+		SemiExternalConnectivity.writeEdges(second, Arrays.copyOfRange(ps, 1000, 2500), Arrays.copyOfRange(qs, 1000, 2500));
+
+		try(SemiExternalConnectivity connectivity = SemiExternalConnectivity.external(vertices, folder.newFolder().toPath(), 128, 32)) {
+			connectivity.addEdges(first);
+			assertThatThrownBy(connectivity::getComponents).isInstanceOf(IllegalStateException.class);
+			connectivity.addEdges(second);
+			Path labels = folder.newFile().toPath();
+			long components = connectivity.writeLabels(labels);
+
+			int[] read = readLabels(labels, vertices);
+			int distinct = 0;
+			for(int p = 0 ; p < vertices ; p++) {
+				distinct += read[p] == p ? 1 : 0;
+				assertThat(read[p]).isLessThanOrEqualTo(p);
+				for(int q = p + 1 ; q < vertices ; q += 37) {
+					assertThat(read[p] == read[q]).isEqualTo(expected.isConnected(p, q));
+				}
+			}
+			assertThat(components).isEqualTo(distinct);
+			assertThat(connectivity.getContractionPasses()).isGreaterThan(1);
+		}
+	}
+
+	@Test
+	public void failedContractionsLeaveNoWorkFiles() throws Exception {
+
+		Path work = folder.newFolder().toPath();
+		Path edges = folder.newFile().toPath();
+		Random random = new Random(53);
+		int[] ps = random.ints(500, 0, 400).toArray();
+		int[] qs = random.ints(500, 0, 400).toArray();
+		SemiExternalConnectivity.writeEdges(edges, ps, qs);
+		ExternalContraction contraction = new ExternalContraction(400, work, 16, 32);
+
+		//The labels can not be written after all the passes
+		Path directory = folder.newFolder().toPath();
+		assertThatThrownBy(() -> contraction.writeLabels(edges, directory)).isInstanceOf(IOException.class);
+		assertThat(contraction.getPasses()).isGreaterThan(0);
+		assertThat(work.toFile().list()).isEmpty();
+
+		//The edges can not be read in the first pass
+		Files.write(edges, new byte[]{0, 0, 0, 3}, StandardOpenOption.APPEND);
+		assertThatThrownBy(() -> contraction.writeLabels(edges, folder.newFile().toPath())).isInstanceOf(IOException.class);
+		assertThat(work.toFile().list()).isEmpty();
+	}
+
+	@Test
+	public void mappedParentsMustFitInHalfOfThePhysicalMemory() {
+
+		SemiExternalConnectivity.checkMappedVertices(1000, 8000);
+		assertThatThrownBy(() -> SemiExternalConnectivity.checkMappedVertices(1001, 8000))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("external mode");
+	}
+
+	@Test
+	public void truncatedFilesAreRejected() throws Exception {
+
+		Path edges = folder.newFile().toPath();
+		SemiExternalConnectivity.writeEdges(edges, new int[]{0, 1}, new int[]{1, 2});
+		Files.write(edges, new byte[]{0, 0, 0, 3}, StandardOpenOption.APPEND);
+
+		try(SemiExternalConnectivity connectivity = SemiExternalConnectivity.inMemory(4, 16)) {
+			connectivity.addEdges(edges);
+			fail("A truncated edge must be rejected");
+		} catch(IOException e) {
+			assertThat(e).hasMessageContaining("after 2 edges");
+		}
+	}
+
+	@Test
+	public void verticesOutOfRangeAreRejected() throws Exception {
+
+		Path edges = folder.newFile().toPath();
+		SemiExternalConnectivity.writeEdges(edges, new int[]{0, 1}, new int[]{1, 4});
+
+		try(SemiExternalConnectivity connectivity = SemiExternalConnectivity.inMemory(4, 16)) {
+			connectivity.addEdges(edges);
+			fail("A vertex out of range must be rejected");
+		} catch(IOException e) {
+			assertThat(e).hasMessageContaining("1-4");
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void blocksMustHoldAnEdge() {
+
+		SemiExternalConnectivity.inMemory(4, 7);
+	}
+
+	private static int[] readLabels(Path labels, int vertices) throws IOException {
+
+		assertThat(Files.size(labels)).isEqualTo((long) vertices * Integer.BYTES);
+		int[] read = new int[vertices];
+		try(DataInputStream in = new DataInputStream(Files.newInputStream(labels))) {
+			for(int i = 0 ; i < vertices ; i++) {
+				read[i] = in.readInt();
+			}
+		}
+		return read;
+	}
+}
@@ -0,0 +1,140 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SingleLinkageClusteringTest {
+
+	/**
+	 * Five objects and the edges 1-2 (1.0), 3-4 (1.5), 0-1 (2.0) and a redundant 0-2 (3.0)
+	 */
+	private SingleLinkageClustering example() {
+
+		return new SingleLinkageClustering(5,
+				new int[]{0, 0, 3, 1},
+				new int[]{1, 2, 4, 2},
+				new double[]{2.0, 3.0, 1.5, 1.0});
+	}
+
+	@Test
+	public void mergesAreRecordedInIncreasingOrderOfWeight() {
+
+		SingleLinkageClustering clustering = example();
+
+		assertThat(clustering.getMergeCount()).isEqualTo(3);
+		assertThat(clustering.getHeight(0)).isEqualTo(1.0);
+		assertThat(clustering.getHeight(1)).isEqualTo(1.5);
+		assertThat(clustering.getHeight(2)).isEqualTo(2.0);
+		assertThat(new int[]{clustering.getLeft(0), clustering.getRight(0)}).containsOnly(1, 2);
+		assertThat(new int[]{clustering.getLeft(2), clustering.getRight(2)}).containsOnly(0, 5);
+	}
+
+	@Test
+	public void labelsDependOnTheThreshold() {
+
+		SingleLinkageClustering clustering = example();
+
+		assertThat(clustering.labelsAt(0.5)).containsExactly(0, 1, 2, 3, 4);
+		assertThat(clustering.labelsAt(1.0)).containsExactly(0, 1, 1, 2, 3);
+		assertThat(clustering.labelsAt(1.7)).containsExactly(0, 1, 1, 2, 2);
+		assertThat(clustering.labelsAt(10)).containsExactly(0, 0, 0, 1, 1);
+		assertThat(clustering.clustersAt(1.7)).isEqualTo(3);
+	}
+
+	@Test
+	public void mergeHeightIsTheWeightOfTheLowestCommonMerge() {
+
+		SingleLinkageClustering clustering = example();
+
+		assertThat(clustering.mergeHeight(1, 2)).isEqualTo(1.0);
+		assertThat(clustering.mergeHeight(2, 0)).isEqualTo(2.0);
+		assertThat(clustering.mergeHeight(4, 3)).isEqualTo(1.5);
+		assertThat(clustering.mergeHeight(0, 4)).isEqualTo(Double.POSITIVE_INFINITY);
+		assertThat(clustering.mergeHeight(3, 3)).isEqualTo(Double.NEGATIVE_INFINITY);
+	}
+
+	@Test
+	public void labelsMatchApplyingTheEdgesUpToTheThreshold() {
+
+		int size = 300;
+		int edges = 600;
+		Random random = new Random(3);
+		int[] from = new int[edges];
+		int[] to = new int[edges];
+		double[] weights = new double[edges];
+		for(int i = 0 ; i < edges ; i++) {
+			from[i] = random.nextInt(size);
+			to[i] = random.nextInt(size);
+			weights[i] = random.nextInt(100) / 10.0;
+		}
+
+		SingleLinkageClustering clustering = new SingleLinkageClustering(size, from, to, weights);
+
+		for(double threshold = 0 ; threshold <= 10 ; threshold += 0.75) {
+			WeightedQuickUnionPathCompression expected = new WeightedQuickUnionPathCompression(size);
+			for(int i = 0 ; i < edges ; i++) {
+				if(weights[i] <= threshold) {
+					expected.union(from[i], to[i]);
+				}
+			}
+			int[] labels = clustering.labelsAt(threshold);
+			for(int p = 0 ; p < size ; p++) {
+				int q = random.nextInt(size);
+				assertThat(labels[p] == labels[q]).isEqualTo(expected.isConnected(p, q));
+				assertThat(clustering.mergeHeight(p, q) <= threshold).isEqualTo(p == q || expected.isConnected(p, q));
+			}
+		}
+	}
+
+	/**
+	 * Points on a line with growing gaps: each merge absorbs one more point, so the dendrogram is a chain
+	 */
+	@Test
+	public void mergeHeightsOfAChainedDendrogram() {
+
+		int size = 2000;
+		int[] from = new int[size - 1];
+		int[] to = new int[size - 1];
+		double[] weights = new double[size - 1];
+		for(int i = 1 ; i < size ; i++) {
+			from[i - 1] = i - 1;
+			to[i - 1] = i;
+			weights[i - 1] = i;
+		}
+		//One more object that is never connected
+		SingleLinkageClustering clustering = new SingleLinkageClustering(size + 1, from, to, weights);
+
+		Random random = new Random(11);
+		int[] ps = new int[500];
+		int[] qs = new int[500];
+		for(int i = 0 ; i < ps.length ; i++) {
+			ps[i] = random.nextInt(size + 1);
+			qs[i] = random.nextInt(size + 1);
+		}
+		ps[0] = qs[0] = 7;
+
+		double[] batch = clustering.mergeHeights(ps, qs);
+		for(int i = 0 ; i < ps.length ; i++) {
+			double expected;
+			if(ps[i] == qs[i]) {
+				expected = Double.NEGATIVE_INFINITY;
+			} else if(ps[i] == size || qs[i] == size) {
+				expected = Double.POSITIVE_INFINITY;
+			} else {
+				//The gap that joins the farthest of the two points to the ones before it
+				expected = Math.max(ps[i], qs[i]);
+			}
+			assertThat(clustering.mergeHeight(ps[i], qs[i])).isEqualTo(expected);
+			assertThat(batch[i]).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	public void edgesAreSortedByWeightKeepingTheirOrder() {
+
+		assertThat(SingleLinkageClustering.sortByWeight(new double[]{3, 1, 2, 1, 0})).containsExactly(4, 1, 3, 2, 0);
+	}
+}
@@ -0,0 +1,88 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SlidingWindowConnectivityTest {
+
+	@Test
+	public void edgesInsideTheWindowConnectObjects() {
+
+		SlidingWindowConnectivity algorithm = new SlidingWindowConnectivity(10, 5);
+
+		algorithm.union(0, 1, 1);
+		algorithm.union(1, 2, 3);
+
+		assertThat(algorithm.isConnected(0, 2)).isTrue();
+	}
+
+	@Test
+	public void oldEdgesExpire() {
+
+		SlidingWindowConnectivity algorithm = new SlidingWindowConnectivity(10, 5);
+
+		algorithm.union(0, 1, 1);
+		algorithm.union(1, 2, 3);
+		algorithm.advanceTo(6);
+
+		assertThat(algorithm.isConnected(0, 1)).isFalse();
+		assertThat(algorithm.isConnected(1, 2)).isTrue();
+		assertThat(algorithm.getWindowSize()).isEqualTo(1);
+
+		algorithm.advanceTo(8);
+
+		assertThat(algorithm.isConnected(1, 2)).isFalse();
+		assertThat(algorithm.getWindowSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void repeatedEdgesKeepObjectsConnected() {
+
+		SlidingWindowConnectivity algorithm = new SlidingWindowConnectivity(10, 5);
+
+		algorithm.union(0, 1, 1);
+		algorithm.union(0, 1, 4);
+		algorithm.advanceTo(7);
+
+		assertThat(algorithm.isConnected(0, 1)).isTrue();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void timeCannotGoBackwards() {
+
+		SlidingWindowConnectivity algorithm = new SlidingWindowConnectivity(10, 5);
+
+		algorithm.union(0, 1, 4);
+		algorithm.union(1, 2, 3);
+	}
+
+	@Test
+	public void behavesLikeRebuildingTheWindowFromScratch() {
+
+		int size = 50;
+		int window = 40;
+		Random random = new Random(42);
+		SlidingWindowConnectivity algorithm = new SlidingWindowConnectivity(size, window);
+		int[] ps = new int[2000];
+		int[] qs = new int[2000];
+
+		for(int time = 0 ; time < ps.length ; time++) {
+			ps[time] = random.nextInt(size);
+			qs[time] = random.nextInt(size);
+			algorithm.union(ps[time], qs[time], time);
+
+			WeightedQuickUnionPathCompression expected = new WeightedQuickUnionPathCompression(size);
+			for(int edge = Math.max(0, time - window + 1) ; edge <= time ; edge++) {
+				expected.union(ps[edge], qs[edge]);
+			}
+			for(int query = 0 ; query < 20 ; query++) {
+				int p = random.nextInt(size);
+				int q = random.nextInt(size);
+				assertThat(algorithm.isConnected(p, q)).isEqualTo(expected.isConnected(p, q));
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimestampedWeightedQuickUnionTest {
+
+	@Test
+	public void executeUnionOperationConnectsTwoElements() {
+
+		TimestampedWeightedQuickUnion algorithm = new TimestampedWeightedQuickUnion(10);
+
+		algorithm.union(0, 1);
+
+		assertThat(algorithm.isConnected(0, 1)).isTrue();
+		assertThat(algorithm.isConnected(0, 2)).isFalse();
+		assertThat(algorithm.getTime()).isEqualTo(1);
+	}
+
+	/**
+	 * union(2, 3) union(0, 1) union(3, 1)
+	 */
+	@Test
+	public void answersQueriesAboutThePast() {
+
+		TimestampedWeightedQuickUnion algorithm = new TimestampedWeightedQuickUnion(5);
+
+		algorithm.union(2, 3);
+		algorithm.union(0, 1);
+		algorithm.union(3, 1);
+
+		assertThat(algorithm.firstConnectedTime(3, 1)).isEqualTo(3);
+		assertThat(algorithm.firstConnectedTime(0, 1)).isEqualTo(2);
+		assertThat(algorithm.firstConnectedTime(3, 2)).isEqualTo(1);
+		assertThat(algorithm.firstConnectedTime(4, 4)).isEqualTo(0);
+		assertThat(algorithm.firstConnectedTime(4, 0)).isEqualTo(TimestampedWeightedQuickUnion.NEVER);
+		assertThat(algorithm.find(1, 2)).isEqualTo(0);
+		assertThat(algorithm.find(1, 1)).isEqualTo(1);
+		assertThat(algorithm.isConnected(0, 3, 2)).isFalse();
+		assertThat(algorithm.isConnected(0, 3, 3)).isTrue();
+		assertThat(algorithm.firstConnectedTimes(new int[]{3, 0}, new int[]{1, 4})).containsExactly(3, TimestampedWeightedQuickUnion.NEVER);
+	}
+
+	@Test
+	public void redundantUnionCommandsAlsoAdvanceTheTime() {
+
+		TimestampedWeightedQuickUnion algorithm = new TimestampedWeightedQuickUnion(3);
+
+		algorithm.union(0, 1);
+		algorithm.union(1, 0);
+		algorithm.union(1, 2);
+
+		assertThat(algorithm.firstConnectedTime(0, 2)).isEqualTo(3);
+	}
+
+	@Test
+	public void firstConnectedTimeMatchesReplayingTheUnionCommands() {
+
+		int size = 200;
+		int unions = 300;
+		Random random = new Random(5);
+		int[] ps = new int[unions];
+		int[] qs = new int[unions];
+		TimestampedWeightedQuickUnion algorithm = new TimestampedWeightedQuickUnion(size);
+		for(int i = 0 ; i < unions ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+			algorithm.union(ps[i], qs[i]);
+		}
+
+		//The answer of every pair is the first time a replay connects them
+		int[] queriesP = new int[1000];
+		int[] queriesQ = new int[1000];
+		int[] expected = new int[1000];
+		for(int i = 0 ; i < expected.length ; i++) {
+			queriesP[i] = random.nextInt(size);
+			queriesQ[i] = random.nextInt(size);
+			expected[i] = TimestampedWeightedQuickUnion.NEVER;
+		}
+		WeightedQuickUnion replay = new WeightedQuickUnion(size);
+		for(int time = 0 ; time <= unions ; time++) {
+			if(time > 0) {
+				replay.union(ps[time - 1], qs[time - 1]);
+			}
+			for(int i = 0 ; i < expected.length ; i++) {
+				if(expected[i] == TimestampedWeightedQuickUnion.NEVER && replay.isConnected(queriesP[i], queriesQ[i])) {
+					expected[i] = time;
+				}
+			}
+		}
+
+		assertThat(algorithm.firstConnectedTimes(queriesP, queriesQ)).containsExactly(expected);
+	}
+}
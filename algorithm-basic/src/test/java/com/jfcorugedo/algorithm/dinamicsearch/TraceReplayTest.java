@@ -0,0 +1,106 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TraceReplayTest {
+
+	@Test
+	public void depthIsTheNumberOfLinksToTheRoot() {
+
+		/*
+		 *  0     3
+		 *  |
+		 *  1
+		 *  |
+		 *  2
+		 */
+		assertThat(TraceReplay.depths(new int[]{0, 0, 1, 3})).containsExactly(0, 1, 2, 0);
+	}
+
+	@Test
+	public void replayReportsEveryImplementation() throws IOException {
+
+		ConnectivityTrace trace = recordWorstCaseTrace(1000);
+
+		for(String name : TraceReplay.IMPLEMENTATIONS.keySet()) {
+			TraceReplay.Report report = TraceReplay.replay(name, trace, TraceReplay.IMPLEMENTATIONS.get(name));
+
+			assertThat(report.getImplementation()).isEqualTo(name);
+			assertThat(report.getCommandsPerSecond()).isPositive();
+			assertThat(report.getLatencyPercentile(50)).isLessThanOrEqualTo(report.getLatencyPercentile(99));
+			assertThat(report.getMaxDepth()).isGreaterThanOrEqualTo(0);
+		}
+	}
+
+	@Test
+	public void everyImplementationExposesItsParents() {
+
+		for(String name : TraceReplay.IMPLEMENTATIONS.keySet()) {
+			DynamicConnectivity algorithm = TraceReplay.IMPLEMENTATIONS.get(name).apply(3);
+			algorithm.union(0, 1);
+
+			int[] parents = TraceReplay.parentsOf(algorithm);
+			assertThat(parents).as(name).hasSize(3);
+			assertThat(TraceReplay.depths(parents)[2]).as(name).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void implementationsWithoutParentsHaveNoDepth() throws IOException {
+
+		ConnectivityTrace trace = recordWorstCaseTrace(10);
+
+		//Only the interface: the shape of its trees is unknown
+		TraceReplay.Report report = TraceReplay.replay("Anonymous", trace, size -> {
+			QuickUnion delegate = new QuickUnion(size);
+			return new DynamicConnectivity() {
+
+				@Override
+				public void union(int p, int q) {
+					delegate.union(p, q);
+				}
+
+				@Override
+				public boolean isConnected(int p, int q) {
+					return delegate.isConnected(p, q);
+				}
+			};
+		}, 0);
+
+		assertThat(report.getMaxDepth()).isEqualTo(-1);
+		assertThat(report.getAverageDepth()).isNaN();
+	}
+
+	@Test
+	public void weightingKeepsTreesShallow() throws IOException {
+
+		ConnectivityTrace trace = recordWorstCaseTrace(1000);
+
+		TraceReplay.Report quickUnion = TraceReplay.replay("QuickUnion", trace, QuickUnion::new);
+		TraceReplay.Report weighted = TraceReplay.replay("WeightedQuickUnion", trace, WeightedQuickUnion::new);
+
+		assertThat(quickUnion.getMaxDepth()).isEqualTo(999);
+		assertThat(weighted.getMaxDepth()).isLessThanOrEqualTo(10);
+	}
+
+	/**
+	 * Connects each object with the next one, which builds a single path with quick-union
+	 */
+	private ConnectivityTrace recordWorstCaseTrace(int size) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(RecordingConnectivity algorithm = new RecordingConnectivity(new QuickFind(size), size, out)) {
+			for(int i = 1 ; i < size ; i++) {
+				algorithm.union(i - 1, i);
+				algorithm.isConnected(0, i);
+			}
+		}
+		return ConnectivityTrace.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+}
@@ -0,0 +1,93 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Checks tryUnion of every implementation that overrides it against a plain array of component labels
+ */
+@RunWith(Parameterized.class)
+public class TryUnionTest {
+
+	private static final int SIZE = 200;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> implementations() {
+
+		return Arrays.asList(new Object[][]{
+				{"QuickFind", (IntFunction<DynamicConnectivity>) QuickFind::new},
+				{"QuickUnion", (IntFunction<DynamicConnectivity>) QuickUnion::new},
+				{"QuickUnionPathCompression", (IntFunction<DynamicConnectivity>) QuickUnionPathCompression::new},
+				{"WeightedQuickUnion", (IntFunction<DynamicConnectivity>) WeightedQuickUnion::new},
+				{"WeightedQuickUnionPathCompression", (IntFunction<DynamicConnectivity>) WeightedQuickUnionPathCompression::new},
+				{"RollbackWeightedQuickUnion", (IntFunction<DynamicConnectivity>) RollbackWeightedQuickUnion::new},
+				{"ReusableWeightedQuickUnion", (IntFunction<DynamicConnectivity>) ReusableWeightedQuickUnion::new},
+				{"TimestampedWeightedQuickUnion", (IntFunction<DynamicConnectivity>) TimestampedWeightedQuickUnion::new},
+				{"OffsetWeightedQuickUnion", (IntFunction<DynamicConnectivity>) OffsetWeightedQuickUnion::additive},
+				{"ConcurrentQuickUnion", (IntFunction<DynamicConnectivity>) ConcurrentQuickUnion::new},
+				{"AdaptiveConnectivity", (IntFunction<DynamicConnectivity>) size -> new AdaptiveConnectivity(size, 0.5)}});
+	}
+
+	private final IntFunction<DynamicConnectivity> factory;
+
+	public TryUnionTest(String name, IntFunction<DynamicConnectivity> factory) {
+		this.factory = factory;
+	}
+
+	@Test
+	public void tryUnionTellsWhetherTheObjectsWereConnected() {
+
+		DynamicConnectivity algorithm = factory.apply(10);
+
+		assertThat(algorithm.tryUnion(0, 1)).isTrue();
+		assertThat(algorithm.tryUnion(1, 2)).isTrue();
+		assertThat(algorithm.tryUnion(2, 0)).isFalse();
+		assertThat(algorithm.tryUnion(3, 3)).isFalse();
+		assertThat(algorithm.isConnected(0, 2)).isTrue();
+		assertThat(algorithm.isConnected(0, 3)).isFalse();
+	}
+
+	@Test
+	public void tryUnionMergesExactlyWhenTheComponentsAreDifferent() {
+
+		DynamicConnectivity algorithm = factory.apply(SIZE);
+		int[] labels = new int[SIZE];
+		for(int element = 0 ; element < SIZE ; element++) {
+			labels[element] = element;
+		}
+
+		Random random = new Random(23);
+		int merges = 0;
+		for(int i = 0 ; i < SIZE ; i++) {
+			int p = random.nextInt(SIZE);
+			int q = random.nextInt(SIZE);
+			boolean different = labels[p] != labels[q];
+
+			assertThat(algorithm.tryUnion(p, q)).isEqualTo(different);
+			if(different) {
+				merges++;
+				int old = labels[p];
+				for(int element = 0 ; element < SIZE ; element++) {
+					if(labels[element] == old) {
+						labels[element] = labels[q];
+					}
+				}
+			}
+			int r = random.nextInt(SIZE);
+			assertThat(algorithm.isConnected(p, r)).isEqualTo(labels[p] == labels[r]);
+		}
+
+		//Every merge joins two components, so the edges form a spanning forest
+		int components = (int) Arrays.stream(labels).distinct().count();
+		assertThat(merges).isEqualTo(SIZE - components);
+	}
+}
@@ -125,4 +125,23 @@ public class WeightedQuickUnionPathCompressionTest {
         assertThat(quickUnionAlgorithm.getTree()).containsExactly(8, 9, 6, 7, 5, 8, 6, 6, 6, 6);
         assertThat(quickUnionAlgorithm.getTreesSize()).containsExactly(1, 1, 1, 1, 1, 2, 10, 2, 4, 2);
     }
+
+	@Test
+	public void aRedundantTryUnionHalvesThePathOfItsObjects() {
+
+		WeightedQuickUnionPathCompression algorithm = new WeightedQuickUnionPathCompression(8);
+		//Trees of the same size: the root of q is linked to the root of p, so 7 -> 6 -> 4 -> 0
+		algorithm.union(0, 1);
+		algorithm.union(2, 3);
+		algorithm.union(0, 2);
+		algorithm.union(4, 5);
+		algorithm.union(6, 7);
+		algorithm.union(4, 6);
+		algorithm.union(0, 4);
+
+		assertThat(algorithm.tryUnion(7, 0)).isFalse();
+
+		assertThat(algorithm.parents()).containsExactly(0, 0, 0, 2, 0, 4, 4, 4);
+		assertThat(algorithm.getTreesSize()).containsExactly(8, 1, 2, 1, 4, 1, 2, 1);
+	}
 }
@@ -0,0 +1,53 @@
+package com.jfcorugedo.algorithm.dinamicsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class WeightedQuickUnionPoolTest {
+
+	@Test
+	public void releasedInstancesAreReusedDisconnected() {
+
+		WeightedQuickUnionPool pool = new WeightedQuickUnionPool(10, 2);
+
+		ReusableWeightedQuickUnion first = pool.acquire();
+		first.union(0, 1);
+		pool.release(first);
+		ReusableWeightedQuickUnion second = pool.acquire();
+
+		assertThat(second).isSameAs(first);
+		assertThat(second.isConnected(0, 1)).isFalse();
+	}
+
+	@Test
+	public void instancesInUseAreNeverSharedWithinAThread() {
+
+		WeightedQuickUnionPool pool = new WeightedQuickUnionPool(10, 2);
+
+		assertThat(pool.acquire()).isNotSameAs(pool.acquire());
+	}
+
+	@Test
+	public void eachThreadHasItsOwnInstances() throws InterruptedException {
+
+		WeightedQuickUnionPool pool = new WeightedQuickUnionPool(10, 2);
+		ReusableWeightedQuickUnion mine = pool.acquire();
+		pool.release(mine);
+
+		AtomicReference<ReusableWeightedQuickUnion> theirs = new AtomicReference<>();
+		Thread other = new Thread(() -> theirs.set(pool.acquire()));
+		other.start();
+		other.join();
+
+		assertThat(theirs.get()).isNotSameAs(mine);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void onlyInstancesOfTheSameSizeCanBeReleased() {
+
+		new WeightedQuickUnionPool(10, 2).release(new ReusableWeightedQuickUnion(5));
+	}
+}
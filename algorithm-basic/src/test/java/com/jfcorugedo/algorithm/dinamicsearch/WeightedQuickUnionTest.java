@@ -2,7 +2,9 @@ package com.jfcorugedo.algorithm.dinamicsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -75,6 +77,21 @@ public class WeightedQuickUnionTest {
 		}		
 	}
 	
+	@Test
+	public void mergeListenerIsNotifiedOnlyWhenTwoTreesAreMerged() {
+
+		WeightedQuickUnion quickUnionAlgorithm = new WeightedQuickUnion(10);
+		List<String> merges = new ArrayList<>();
+		quickUnionAlgorithm.setMergeListener((survivingRoot, absorbedRoot) -> merges.add(survivingRoot + "<-" + absorbedRoot));
+
+		quickUnionAlgorithm.union(1, 6);
+		quickUnionAlgorithm.union(6, 1);
+		quickUnionAlgorithm.union(5, 1);
+		quickUnionAlgorithm.union(3, 3);
+
+		assertThat(merges).containsExactly("1<-6", "1<-5");
+	}
+
 	//@Test(timeout=10000)
 	public void performanceTest() {
 		
@@ -0,0 +1,133 @@
+package com.jfcorugedo.algorithm.dinamicsearch.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jfcorugedo.algorithm.dinamicsearch.WeightedQuickUnionPathCompression;
+
+public class ConnectivityServerTest {
+
+	private ConnectivityServer server;
+
+	@Before
+	public void startServer() throws IOException {
+		server = new ConnectivityServer(new WeightedQuickUnionPathCompression(100000), 0).start();
+	}
+
+	@After
+	public void stopServer() throws IOException {
+		server.close();
+	}
+
+	@Test
+	public void executeUnionOperationConnectsTwoElements() throws IOException {
+
+		try(ConnectivityClient client = new ConnectivityClient("localhost", server.getPort())) {
+
+			client.union(0, 1);
+
+			assertThat(client.isConnected(0, 1)).isTrue();
+			assertThat(client.isConnected(0, 2)).isFalse();
+		}
+	}
+
+	@Test
+	public void pipelinedRequestsAreAnsweredInOrder() throws IOException {
+
+		try(ConnectivityClient client = new ConnectivityClient("localhost", server.getPort())) {
+
+			client.sendIsConnected(3, 5);
+			client.sendUnion(3, 4);
+			client.sendUnion(4, 5);
+			client.sendIsConnected(3, 5);
+			client.sendIsConnected(3, 6);
+
+			assertThat(client.sync()).containsExactly(false, true, true, true, false);
+		}
+	}
+
+	@Test
+	public void pipelinesLargerThanTheInFlightLimitAreAnswered() throws IOException {
+
+		try(ConnectivityClient client = new ConnectivityClient("localhost", server.getPort())) {
+
+			int size = 3 * ConnectivityClient.MAX_IN_FLIGHT;
+			for(int i = 1 ; i < size ; i++) {
+				client.sendUnion(i - 1, i);
+			}
+			client.sendIsConnected(0, size - 1);
+
+			boolean[] answers = client.sync();
+
+			assertThat(answers).hasSize(size);
+			assertThat(answers[size - 1]).isTrue();
+		}
+	}
+
+	@Test
+	public void allClientsShareTheSameStructure() throws IOException {
+
+		try(ConnectivityClient writer = new ConnectivityClient("localhost", server.getPort());
+			ConnectivityClient reader = new ConnectivityClient("localhost", server.getPort())) {
+
+			writer.union(7, 8);
+
+			assertThat(reader.isConnected(8, 7)).isTrue();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void objectsOutOfRangeAreReportedAsErrors() throws IOException {
+
+		try(ConnectivityClient client = new ConnectivityClient("localhost", server.getPort())) {
+
+			client.union(0, 100000);
+		}
+	}
+
+	@Test
+	public void errorsDoNotBreakTheConnection() throws IOException {
+
+		try(ConnectivityClient client = new ConnectivityClient("localhost", server.getPort())) {
+
+			try {
+				client.isConnected(-1, 0);
+			} catch(IOException e) {
+				//Expected
+			}
+
+			client.union(10, 11);
+			assertThat(client.isConnected(10, 11)).isTrue();
+		}
+	}
+
+	@Test
+	public void unknownOpcodesAreAnsweredWithErrorsWithoutLosingTheOtherAnswers() throws IOException {
+
+		try(Socket socket = new Socket("localhost", server.getPort())) {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+
+			byte[] frames = new byte[3 * ConnectivityProtocol.FRAME_SIZE];
+			ByteBuffer.wrap(frames)
+				.put(ConnectivityProtocol.UNION).putInt(20).putInt(21)
+				.put((byte) 42).putInt(20).putInt(21)
+				.put(ConnectivityProtocol.IS_CONNECTED).putInt(21).putInt(20);
+			out.write(frames);
+			out.flush();
+
+			assertThat(in.readByte()).isEqualTo(ConnectivityProtocol.ACK);
+			assertThat(in.readByte()).isEqualTo(ConnectivityProtocol.ERROR);
+			assertThat(in.readByte()).isEqualTo(ConnectivityProtocol.TRUE);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.jfcorugedo.algorithm.dinamicsearch.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.jfcorugedo.algorithm.dinamicsearch.WeightedQuickUnionPathCompression;
+import com.jfcorugedo.algorithm.dinamicsearch.stream.ConnectivityEvent.Type;
+
+public class ConnectivityProcessorTest {
+
+	@Test
+	public void publishesMergeAndRedundantEvents() throws InterruptedException {
+
+		ConnectivityProcessor processor = new ConnectivityProcessor(new WeightedQuickUnionPathCompression(10), 2);
+		CollectingSubscriber events = new CollectingSubscriber();
+		processor.subscribe(events);
+
+		try(SubmissionPublisher<Edge> source = new SubmissionPublisher<>()) {
+			source.subscribe(processor);
+			source.submit(new Edge(0, 1));
+			source.submit(new Edge(1, 2));
+			source.submit(new Edge(2, 0));
+		}
+
+		assertThat(events.awaitCompletion()).isTrue();
+		assertThat(events.received).containsExactly(
+				new ConnectivityEvent(Type.MERGE, new Edge(0, 1)),
+				new ConnectivityEvent(Type.MERGE, new Edge(1, 2)),
+				new ConnectivityEvent(Type.REDUNDANT, new Edge(2, 0)));
+	}
+
+	@Test
+	public void neverRequestsMoreThanOneBatch() {
+
+		ConnectivityProcessor processor = new ConnectivityProcessor(new WeightedQuickUnionPathCompression(10), 4);
+		RecordingSubscription subscription = new RecordingSubscription();
+
+		processor.onSubscribe(subscription);
+		assertThat(subscription.requested).isEqualTo(4);
+
+		for(int i = 1 ; i < 4 ; i++) {
+			processor.onNext(new Edge(i - 1, i));
+			assertThat(subscription.requested).isEqualTo(4);
+		}
+
+		processor.onNext(new Edge(3, 4));
+		assertThat(subscription.requested).isEqualTo(8);
+	}
+
+	/**
+	 * A live source that pauses with less than a batch: its edges must be applied without waiting for more
+	 */
+	@Test
+	public void partialBatchesAreAppliedWhileTheSourceIsOpen() throws InterruptedException {
+
+		WeightedQuickUnionPathCompression connectivity = new WeightedQuickUnionPathCompression(10);
+		ConnectivityProcessor processor = new ConnectivityProcessor(connectivity, 16);
+		CollectingSubscriber events = new CollectingSubscriber();
+		processor.subscribe(events);
+
+		try(SubmissionPublisher<Edge> source = new SubmissionPublisher<>()) {
+			source.subscribe(processor);
+			source.submit(new Edge(0, 1));
+			source.submit(new Edge(1, 0));
+
+			assertThat(events.awaitEvents(2)).isTrue();
+			assertThat(events.received).containsExactly(
+					new ConnectivityEvent(Type.MERGE, new Edge(0, 1)),
+					new ConnectivityEvent(Type.REDUNDANT, new Edge(1, 0)));
+		}
+	}
+
+	@Test
+	public void manyProducersAreAppliedWithoutLosingEdges() throws InterruptedException {
+
+		int producers = 4;
+		int edgesPerProducer = 10000;
+		WeightedQuickUnionPathCompression connectivity = new WeightedQuickUnionPathCompression(producers * edgesPerProducer);
+		ConnectivityProcessor processor = new ConnectivityProcessor(connectivity, 256);
+		CollectingSubscriber events = new CollectingSubscriber();
+		processor.subscribe(events);
+
+		try(SubmissionPublisher<Edge> source = new SubmissionPublisher<>()) {
+			source.subscribe(processor);
+			List<Thread> threads = new ArrayList<>();
+			for(int producer = 0 ; producer < producers ; producer++) {
+				int offset = producer * edgesPerProducer;
+				Thread thread = new Thread(() -> {
+					for(int i = 1 ; i < edgesPerProducer ; i++) {
+						source.submit(new Edge(offset + i - 1, offset + i));
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+			for(Thread thread : threads) {
+				thread.join();
+			}
+		}
+
+		assertThat(events.awaitCompletion()).isTrue();
+		assertThat(events.received).hasSize(producers * (edgesPerProducer - 1));
+		assertThat(connectivity.isConnected(0, edgesPerProducer - 1)).isTrue();
+		assertThat(connectivity.isConnected(0, edgesPerProducer)).isFalse();
+	}
+
+	private static class RecordingSubscription implements Flow.Subscription {
+
+		long requested;
+
+		@Override
+		public void request(long n) {
+			requested += n;
+		}
+
+		@Override
+		public void cancel() {
+			//Nothing to cancel
+		}
+	}
+
+	private static class CollectingSubscriber implements Flow.Subscriber<ConnectivityEvent> {
+
+		final List<ConnectivityEvent> received = Collections.synchronizedList(new ArrayList<>());
+
+		final Semaphore arrived = new Semaphore(0);
+
+		final CountDownLatch completed = new CountDownLatch(1);
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(ConnectivityEvent item) {
+			received.add(item);
+			arrived.release();
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			completed.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed.countDown();
+		}
+
+		boolean awaitCompletion() throws InterruptedException {
+			return completed.await(10, TimeUnit.SECONDS);
+		}
+
+		boolean awaitEvents(int count) throws InterruptedException {
+			return arrived.tryAcquire(count, 10, TimeUnit.SECONDS);
+		}
+	}
+}
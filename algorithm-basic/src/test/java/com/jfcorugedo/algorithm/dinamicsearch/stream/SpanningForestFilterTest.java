@@ -0,0 +1,76 @@
+package com.jfcorugedo.algorithm.dinamicsearch.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jfcorugedo.algorithm.dinamicsearch.WeightedQuickUnion;
+import com.jfcorugedo.algorithm.dinamicsearch.WeightedQuickUnionPathCompression;
+
+public class SpanningForestFilterTest {
+
+	@Test
+	public void forestAndCycleEdgesAreReportedSeparately() {
+
+		List<String> forest = new ArrayList<>();
+		List<String> cycles = new ArrayList<>();
+		SpanningForestFilter filter = new SpanningForestFilter(new WeightedQuickUnionPathCompression(5),
+				(p, q) -> forest.add(p + "-" + q), (p, q) -> cycles.add(p + "-" + q));
+
+		assertThat(filter.accept(0, 1)).isTrue();
+		assertThat(filter.accept(1, 2)).isTrue();
+		assertThat(filter.accept(0, 2)).isFalse();
+		assertThat(filter.accept(3, 4)).isTrue();
+		assertThat(filter.accept(4, 4)).isFalse();
+
+		assertThat(forest).containsExactly("0-1", "1-2", "3-4");
+		assertThat(cycles).containsExactly("0-2", "4-4");
+		assertThat(filter.getForestEdges()).isEqualTo(3);
+		assertThat(filter.getRedundantEdges()).isEqualTo(2);
+	}
+
+	@Test
+	public void blocksAreCompactedInPlace() {
+
+		SpanningForestFilter filter = new SpanningForestFilter(new WeightedQuickUnionPathCompression(5));
+		int[] ps = {0, 1, 0, 3};
+		int[] qs = {1, 2, 2, 4};
+
+		int kept = filter.filter(ps, qs, 4);
+
+		assertThat(kept).isEqualTo(3);
+		assertThat(ps).startsWith(0, 1, 3);
+		assertThat(qs).startsWith(1, 2, 4);
+	}
+
+	@Test
+	public void keptEdgesConnectTheSameObjectsAsAllTheEdges() {
+
+		int size = 1000;
+		int edges = 5000;
+		Random random = new Random(23);
+		int[] ps = new int[edges];
+		int[] qs = new int[edges];
+		WeightedQuickUnion all = new WeightedQuickUnion(size);
+		for(int i = 0 ; i < edges ; i++) {
+			ps[i] = random.nextInt(size);
+			qs[i] = random.nextInt(size);
+			all.union(ps[i], qs[i]);
+		}
+
+		int kept = new SpanningForestFilter(new WeightedQuickUnionPathCompression(size)).filter(ps, qs, edges);
+
+		WeightedQuickUnion forest = new WeightedQuickUnion(size);
+		for(int i = 0 ; i < kept ; i++) {
+			//Every kept edge must merge two components: a forest has no cycles
+			assertThat(forest.tryUnion(ps[i], qs[i])).isTrue();
+		}
+		for(int p = 0 ; p < size ; p++) {
+			assertThat(forest.isConnected(p, 0)).isEqualTo(all.isConnected(p, 0));
+		}
+	}
+}